@@ -0,0 +1,243 @@
+package katae.calculators;
+
+/**
+ * Tables of arithmetic functions for all the integers from 0 up to a bound,
+ * filled in by a single pass of the linear sieve of Euler. Unlike the sieve of
+ * Eratosthenes, the linear sieve reaches each composite number exactly once,
+ * through its smallest prime factor, which makes it easy to fill in
+ * multiplicative functions along the way: if <i>p</i> is the smallest prime
+ * factor of <i>n</i> = <i>pm</i>, then the value for <i>n</i> follows from the
+ * value for <i>m</i> and whether or not <i>p</i> divides <i>m</i>.
+ * <p>The tables cover the smallest prime factor, the M&ouml;bius function
+ * &mu;, whether or not a number is squarefree, the radical (also called the
+ * squarefree kernel), the number of divisors and Euler's totient function
+ * &phi;. Each table takes up to 4 bytes per number, so that all together they
+ * take up about 17 bytes per number.</p>
+ * <p>By convention, the value for 0 is 0 in every table, except that 0 is not
+ * squarefree. The smallest prime factor of 1 is given as 1.</p>
+ * <p>Instances are immutable.</p>
+ * @author Alonso del Arte
+ */
+public final class ArithmeticFunctionTable {
+
+    private final int bound;
+    private final int[] smallestPrimeFactors;
+    private final byte[] moebiusValues;
+    private final int[] radicals;
+    private final int[] divisorCounts;
+    private final int[] totients;
+
+    /**
+     * Gives the largest number covered by these tables.
+     * @return The bound. For example, 65536.
+     */
+    public int getBound() {
+        return this.bound;
+    }
+
+    private void checkRange(int num) {
+        if (num < 0 || num > this.bound) {
+            throw new IllegalArgumentException("The number " + num
+                    + " is outside the range 0 to " + this.bound
+                    + " of this table");
+        }
+    }
+
+    /**
+     * Gives the smallest prime factor of a number.
+     * @param num The number. For example, 91.
+     * @return The smallest prime factor. For example, 7. For a prime, the
+     * prime itself.
+     * @throws IllegalArgumentException If <code>num</code> is negative or
+     * greater than the bound.
+     */
+    public int smallestPrimeFactor(int num) {
+        this.checkRange(num);
+        return this.smallestPrimeFactors[num];
+    }
+
+    /**
+     * Gives the M&ouml;bius function of a number.
+     * @param num The number. For example, 33.
+     * @return 1 if the number is squarefree with an even number of prime
+     * factors, &minus;1 if squarefree with an odd number of prime factors, 0
+     * if not squarefree. For example, 1.
+     * @throws IllegalArgumentException If <code>num</code> is negative or
+     * greater than the bound.
+     */
+    public byte moebiusMu(int num) {
+        this.checkRange(num);
+        return this.moebiusValues[num];
+    }
+
+    /**
+     * Tells whether a number is squarefree.
+     * @param num The number. For example, 12.
+     * @return True if no prime divides the number more than once, false
+     * otherwise. For example, false.
+     * @throws IllegalArgumentException If <code>num</code> is negative or
+     * greater than the bound.
+     */
+    public boolean isSquareFree(int num) {
+        this.checkRange(num);
+        return this.moebiusValues[num] != 0;
+    }
+
+    /**
+     * Gives the radical of a number, the product of its distinct prime
+     * factors.
+     * @param num The number. For example, 392.
+     * @return The radical. For example, 14.
+     * @throws IllegalArgumentException If <code>num</code> is negative or
+     * greater than the bound.
+     */
+    public int radical(int num) {
+        this.checkRange(num);
+        return this.radicals[num];
+    }
+
+    /**
+     * Gives the number of positive divisors of a number.
+     * @param num The number. For example, 12.
+     * @return The number of divisors. For example, 6.
+     * @throws IllegalArgumentException If <code>num</code> is negative or
+     * greater than the bound.
+     */
+    public int divisorCount(int num) {
+        this.checkRange(num);
+        return this.divisorCounts[num];
+    }
+
+    /**
+     * Gives Euler's totient function of a number, how many numbers from 1 to
+     * the number are coprime to it.
+     * @param num The number. For example, 12.
+     * @return The totient. For example, 4.
+     * @throws IllegalArgumentException If <code>num</code> is negative or
+     * greater than the bound.
+     */
+    public int eulerPhi(int num) {
+        this.checkRange(num);
+        return this.totients[num];
+    }
+
+    /**
+     * Gives the smallest prime factors of all the numbers in the table.
+     * @return A new array indexed by number, from 0 to the bound.
+     */
+    public int[] smallestPrimeFactors() {
+        return this.smallestPrimeFactors.clone();
+    }
+
+    /**
+     * Gives the M&ouml;bius function of all the numbers in the table.
+     * @return A new array indexed by number, from 0 to the bound.
+     */
+    public byte[] moebiusValues() {
+        return this.moebiusValues.clone();
+    }
+
+    /**
+     * Tells which numbers in the table are squarefree.
+     * @return A new array indexed by number, from 0 to the bound.
+     */
+    public boolean[] squareFreeFlags() {
+        boolean[] flags = new boolean[this.bound + 1];
+        for (int n = 0; n <= this.bound; n++) {
+            flags[n] = this.moebiusValues[n] != 0;
+        }
+        return flags;
+    }
+
+    /**
+     * Gives the radicals of all the numbers in the table.
+     * @return A new array indexed by number, from 0 to the bound.
+     */
+    public int[] radicals() {
+        return this.radicals.clone();
+    }
+
+    /**
+     * Gives the number of divisors of all the numbers in the table.
+     * @return A new array indexed by number, from 0 to the bound.
+     */
+    public int[] divisorCounts() {
+        return this.divisorCounts.clone();
+    }
+
+    /**
+     * Gives Euler's totient function of all the numbers in the table.
+     * @return A new array indexed by number, from 0 to the bound.
+     */
+    public int[] totients() {
+        return this.totients.clone();
+    }
+
+    /**
+     * Runs the linear sieve up to a bound and fills in the tables.
+     * @param bound The largest number to cover. For example, 65536.
+     * @throws IllegalArgumentException If <code>bound</code> is negative or so
+     * large the tables can't be allocated.
+     */
+    public ArithmeticFunctionTable(int bound) {
+        if (bound < 0 || bound > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Bound " + bound
+                    + " is out of range");
+        }
+        this.bound = bound;
+        int size = bound + 1;
+        this.smallestPrimeFactors = new int[size];
+        this.moebiusValues = new byte[size];
+        this.radicals = new int[size];
+        this.divisorCounts = new int[size];
+        this.totients = new int[size];
+        if (bound == 0) {
+            return;
+        }
+        // Exponent of the smallest prime factor, only needed while sieving
+        byte[] spfExponents = new byte[size];
+        int[] primes = new int[Math.max(16, (int) (1.26 * size / Math.log(size + 1)) + 16)];
+        int primeCount = 0;
+        this.smallestPrimeFactors[1] = 1;
+        this.moebiusValues[1] = 1;
+        this.radicals[1] = 1;
+        this.divisorCounts[1] = 1;
+        this.totients[1] = 1;
+        for (int i = 2; i <= bound; i++) {
+            if (this.smallestPrimeFactors[i] == 0) {
+                this.smallestPrimeFactors[i] = i;
+                this.moebiusValues[i] = -1;
+                this.radicals[i] = i;
+                this.divisorCounts[i] = 2;
+                this.totients[i] = i - 1;
+                spfExponents[i] = 1;
+                primes[primeCount++] = i;
+            }
+            int spf = this.smallestPrimeFactors[i];
+            for (int j = 0; j < primeCount; j++) {
+                int p = primes[j];
+                if (p > spf || (long) i * p > bound) {
+                    break;
+                }
+                int multiple = i * p;
+                this.smallestPrimeFactors[multiple] = p;
+                if (p == spf) {
+                    this.moebiusValues[multiple] = 0;
+                    this.radicals[multiple] = this.radicals[i];
+                    spfExponents[multiple] = (byte) (spfExponents[i] + 1);
+                    this.divisorCounts[multiple] = this.divisorCounts[i]
+                            / (spfExponents[i] + 1) * (spfExponents[i] + 2);
+                    this.totients[multiple] = this.totients[i] * p;
+                } else {
+                    this.moebiusValues[multiple]
+                            = (byte) -this.moebiusValues[i];
+                    this.radicals[multiple] = this.radicals[i] * p;
+                    spfExponents[multiple] = 1;
+                    this.divisorCounts[multiple] = this.divisorCounts[i] * 2;
+                    this.totients[multiple] = this.totients[i] * (p - 1);
+                }
+            }
+        }
+    }
+
+}
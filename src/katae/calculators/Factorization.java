@@ -0,0 +1,293 @@
+package katae.calculators;
+
+import java.util.Arrays;
+
+/**
+ * The prime factorization of an integer, held compactly as the distinct
+ * primes in ascending order along with their exponents, in primitive arrays.
+ * For example, 44100 = 2<sup>2</sup> &times; 3<sup>2</sup> &times;
+ * 5<sup>2</sup> &times; 7<sup>2</sup> is held as primes 2, 3, 5, 7 and
+ * exponents 2, 2, 2, 2, rather than as a list with each prime repeated. The
+ * sign is held separately, so the factorization of &minus;44100 has the same
+ * primes and exponents. The factorization of 0 has no primes, and neither does
+ * the factorization of 1 or &minus;1.
+ * <p>Instances are immutable.</p>
+ * @author Alonso del Arte
+ */
+public final class Factorization {
+
+    private static final long[] NO_PRIMES = {};
+
+    private static final int[] NO_EXPONENTS = {};
+
+    private final long number;
+    private final long[] primes;
+    private final int[] exponents;
+
+    /**
+     * Gives the number that was factored.
+     * @return The number. For example, &minus;44100.
+     */
+    public long getNumber() {
+        return this.number;
+    }
+
+    /**
+     * Gives the sign of the number that was factored.
+     * @return &minus;1 if the number is negative, 0 if it's 0, 1 if it's
+     * positive.
+     */
+    public int signum() {
+        return Long.signum(this.number);
+    }
+
+    /**
+     * Tells how many distinct primes divide the number.
+     * @return The number of distinct primes. For example, 4 for 44100.
+     */
+    public int distinctPrimeCount() {
+        return this.primes.length;
+    }
+
+    /**
+     * Gives one of the distinct primes, in ascending order.
+     * @param index The position of the prime, starting at 0. For example, 1.
+     * @return The prime. For example, 3 if the number is 44100.
+     * @throws ArrayIndexOutOfBoundsException If <code>index</code> is negative
+     * or not less than {@link #distinctPrimeCount()}.
+     */
+    public long getPrime(int index) {
+        return this.primes[index];
+    }
+
+    /**
+     * Gives the exponent of one of the distinct primes.
+     * @param index The position of the prime, starting at 0. For example, 1.
+     * @return The exponent. For example, 2 if the number is 44100.
+     * @throws ArrayIndexOutOfBoundsException If <code>index</code> is negative
+     * or not less than {@link #distinctPrimeCount()}.
+     */
+    public int getExponent(int index) {
+        return this.exponents[index];
+    }
+
+    /**
+     * Gives the distinct primes.
+     * @return A new array with the primes in ascending order. For example, 2,
+     * 3, 5, 7 for 44100.
+     */
+    public long[] getPrimes() {
+        return this.primes.clone();
+    }
+
+    /**
+     * Gives the exponents of the distinct primes.
+     * @return A new array with the exponents, in the same order as the primes
+     * given by {@link #getPrimes()}. For example, 2, 2, 2, 2 for 44100.
+     */
+    public int[] getExponents() {
+        return this.exponents.clone();
+    }
+
+    /**
+     * Tells whether the number is squarefree, that is, whether none of the
+     * exponents is greater than 1.
+     * @return True if the number is squarefree, false otherwise. For example,
+     * false for 44100, true for &minus;30. By convention, 0 is not
+     * squarefree, but 1 and &minus;1 are.
+     */
+    public boolean isSquareFree() {
+        if (this.number == 0) {
+            return false;
+        }
+        for (int exponent : this.exponents) {
+            if (exponent > 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gives the radical of the number, the product of its distinct primes.
+     * @return The radical, which is never negative. For example, 210 for
+     * 44100 and for &minus;44100. The radical of 0 is given as 0.
+     */
+    public long radical() {
+        if (this.number == 0) {
+            return 0;
+        }
+        long radical = 1;
+        for (long prime : this.primes) {
+            radical *= prime;
+        }
+        return radical;
+    }
+
+    /**
+     * Gives the M&ouml;bius function of the number.
+     * @return 0 if the number is not squarefree, otherwise 1 if it has an
+     * even number of distinct primes and &minus;1 if it has an odd number of
+     * them. For example, 0 for 44100, &minus;1 for 30. The M&ouml;bius
+     * function of 0 is given as 0.
+     */
+    public byte moebius() {
+        if (!this.isSquareFree()) {
+            return 0;
+        }
+        return (byte) ((this.primes.length & 1) == 0 ? 1 : -1);
+    }
+
+    /**
+     * Counts the positive divisors of the number, as the product of the
+     * exponents plus 1.
+     * @return The number of divisors. For example, 81 for 44100. Since 0 is
+     * divisible by every number, the count for 0 is given as 0, the length of
+     * the array given by {@link #divisors()}.
+     */
+    public int divisorCount() {
+        if (this.number == 0) {
+            return 0;
+        }
+        int count = 1;
+        for (int exponent : this.exponents) {
+            count *= exponent + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Lists the positive divisors of the number, as all the products of
+     * powers of the primes, so the time taken depends on how many divisors
+     * there are rather than on the size of the number.
+     * @return A new array with the divisors in ascending order. For example,
+     * 1, 2, 3, 4, 6, 12 for &minus;12. For 0, the array is empty.
+     * @throws ArithmeticException If the number is {@link Long#MIN_VALUE},
+     * since 2<sup>63</sup> is one of its divisors but is outside the range of
+     * <code>long</code>.
+     */
+    public long[] divisors() {
+        if (this.number == Long.MIN_VALUE) {
+            throw new ArithmeticException("Divisor 2^63 of " + this.number
+                    + " is outside the range of long");
+        }
+        long[] divs = new long[this.divisorCount()];
+        if (divs.length == 0) {
+            return divs;
+        }
+        divs[0] = 1;
+        int filled = 1;
+        for (int i = 0; i < this.primes.length; i++) {
+            int previouslyFilled = filled;
+            long primePower = 1;
+            for (int j = 0; j < this.exponents[i]; j++) {
+                primePower *= this.primes[i];
+                for (int k = 0; k < previouslyFilled; k++) {
+                    divs[filled++] = divs[k] * primePower;
+                }
+            }
+        }
+        Arrays.sort(divs);
+        return divs;
+    }
+
+    /**
+     * Builds a factorization from prime factors listed with repetition, in
+     * no particular order.
+     * @param number The number that was factored.
+     * @param factors The prime factors. This array gets sorted in place.
+     * @param count How many of the entries of <code>factors</code> to use.
+     * @return The factorization.
+     */
+    static Factorization fromRepeatedFactors(long number, long[] factors,
+            int count) {
+        if (count == 0) {
+            return new Factorization(number, NO_PRIMES, NO_EXPONENTS);
+        }
+        Arrays.sort(factors, 0, count);
+        long[] distinct = new long[count];
+        int[] multiplicities = new int[count];
+        int distinctCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinctCount > 0 && distinct[distinctCount - 1] == factors[i]) {
+                multiplicities[distinctCount - 1]++;
+            } else {
+                distinct[distinctCount] = factors[i];
+                multiplicities[distinctCount] = 1;
+                distinctCount++;
+            }
+        }
+        return new Factorization(number, Arrays.copyOf(distinct, distinctCount),
+                Arrays.copyOf(multiplicities, distinctCount));
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.number);
+    }
+
+    /**
+     * Determines if a Factorization object is equal to another object. Since
+     * prime factorizations are unique, this only needs to compare the numbers
+     * that were factored.
+     * @param obj The object to be tested for equality.
+     * @return True if both objects are factorizations of the same number,
+     * false otherwise.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        return this.number == ((Factorization) obj).number;
+    }
+
+    /**
+     * Gives a representation of this factorization as a String, using ASCII
+     * characters only.
+     * @return The primes with their exponents, separated by asterisks, with
+     * exponents of 1 omitted and &minus;1 in front for negative numbers. For
+     * example, "-1 * 2^2 * 3^2 * 5^2 * 7^2" for &minus;44100, "1151" for 1151.
+     * The factorizations of 0, 1 and &minus;1 are given as "0", "1" and "-1".
+     */
+    @Override
+    public String toString() {
+        if (this.primes.length == 0) {
+            return Long.toString(Long.signum(this.number));
+        }
+        StringBuilder builder = new StringBuilder();
+        if (this.number < 0) {
+            builder.append("-1 * ");
+        }
+        for (int i = 0; i < this.primes.length; i++) {
+            if (i > 0) {
+                builder.append(" * ");
+            }
+            builder.append(this.primes[i]);
+            if (this.exponents[i] > 1) {
+                builder.append('^').append(this.exponents[i]);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Constructs a factorization from arrays already in order. The arrays are
+     * not copied.
+     * @param number The number that was factored.
+     * @param primes The distinct primes, in ascending order.
+     * @param exponents The exponents, all positive.
+     */
+    Factorization(long number, long[] primes, int[] exponents) {
+        this.number = number;
+        this.primes = primes;
+        this.exponents = exponents;
+    }
+
+}
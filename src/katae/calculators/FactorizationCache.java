@@ -0,0 +1,332 @@
+package katae.calculators;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of prime factorizations, limited to a fixed number of entries, with
+ * the least recently used entry evicted to make room for a new one. To use it
+ * from {@link NTFC#primeFactors(long)} and the functions that depend on it,
+ * such as {@link NTFC#sortedDivisors(long)}, pass it to {@link
+ * NTFC#setFactorizationCache(FactorizationCache)}.
+ * <p>The entries are split among several stripes, each with its own lock, so
+ * that threads looking up different numbers rarely wait on each other. Each
+ * stripe keeps its keys in a <code>long</code> array with open addressing,
+ * and its recency order in a linked list threaded through <code>int</code>
+ * arrays, so that no <code>Long</code> objects are created for lookups.
+ * Factoring on a miss happens outside the lock.</p>
+ * <p>Hits, misses and evictions are counted for monitoring.</p>
+ * @author Alonso del Arte
+ */
+public final class FactorizationCache {
+
+    /**
+     * The capacity of a cache constructed without specifying a capacity.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * The most stripes a cache is split into.
+     */
+    private static final int MAX_STRIPES = 16;
+
+    private static final int NO_NODE = -1;
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * One part of the cache. Nodes are numbered from 0 to the capacity of the
+     * stripe minus 1; slot <i>i</i> holds a node number plus 1, or 0 if the
+     * slot is empty.
+     */
+    private static final class Stripe {
+
+        private final int capacity;
+        private final long[] keys;
+        private final Factorization[] values;
+        private final int[] prev;
+        private final int[] next;
+        private final int[] slots;
+        private final int slotMask;
+        private int head = NO_NODE;
+        private int tail = NO_NODE;
+        private int size = 0;
+
+        private int home(long key) {
+            return (int) mix(key) & this.slotMask;
+        }
+
+        /**
+         * Finds the slot holding a key. If the key is not found, the result
+         * is the bitwise complement of the empty slot where it would go.
+         */
+        private int findSlot(long key) {
+            int i = this.home(key);
+            while (this.slots[i] != 0) {
+                if (this.keys[this.slots[i] - 1] == key) {
+                    return i;
+                }
+                i = (i + 1) & this.slotMask;
+            }
+            return ~i;
+        }
+
+        /**
+         * Empties a slot, then shifts back any later entries in the same run
+         * that could no longer be found past the gap.
+         */
+        private void removeSlot(int slot) {
+            int gap = slot;
+            this.slots[gap] = 0;
+            int j = gap;
+            while (true) {
+                j = (j + 1) & this.slotMask;
+                if (this.slots[j] == 0) {
+                    return;
+                }
+                int k = this.home(this.keys[this.slots[j] - 1]);
+                boolean homeInRange = gap <= j ? (gap < k && k <= j)
+                        : (gap < k || k <= j);
+                if (!homeInRange) {
+                    this.slots[gap] = this.slots[j];
+                    this.slots[j] = 0;
+                    gap = j;
+                }
+            }
+        }
+
+        private void unlink(int node) {
+            if (this.prev[node] == NO_NODE) {
+                this.head = this.next[node];
+            } else {
+                this.next[this.prev[node]] = this.next[node];
+            }
+            if (this.next[node] == NO_NODE) {
+                this.tail = this.prev[node];
+            } else {
+                this.prev[this.next[node]] = this.prev[node];
+            }
+        }
+
+        private void linkFirst(int node) {
+            this.prev[node] = NO_NODE;
+            this.next[node] = this.head;
+            if (this.head == NO_NODE) {
+                this.tail = node;
+            } else {
+                this.prev[this.head] = node;
+            }
+            this.head = node;
+        }
+
+        private synchronized Factorization get(long key) {
+            int slot = this.findSlot(key);
+            if (slot < 0) {
+                return null;
+            }
+            int node = this.slots[slot] - 1;
+            if (node != this.head) {
+                this.unlink(node);
+                this.linkFirst(node);
+            }
+            return this.values[node];
+        }
+
+        /**
+         * Puts an entry in this stripe.
+         * @return True if another entry was evicted to make room.
+         */
+        private synchronized boolean put(long key, Factorization value) {
+            int slot = this.findSlot(key);
+            if (slot >= 0) {
+                int node = this.slots[slot] - 1;
+                this.values[node] = value;
+                this.unlink(node);
+                this.linkFirst(node);
+                return false;
+            }
+            boolean evicted = false;
+            int node;
+            if (this.size < this.capacity) {
+                node = this.size++;
+            } else {
+                node = this.tail;
+                this.removeSlot(this.findSlot(this.keys[node]));
+                this.unlink(node);
+                slot = this.findSlot(key);
+                evicted = true;
+            }
+            this.keys[node] = key;
+            this.values[node] = value;
+            this.slots[~slot] = node + 1;
+            this.linkFirst(node);
+            return evicted;
+        }
+
+        private synchronized int size() {
+            return this.size;
+        }
+
+        private synchronized void clear() {
+            Arrays.fill(this.slots, 0);
+            Arrays.fill(this.values, null);
+            this.head = NO_NODE;
+            this.tail = NO_NODE;
+            this.size = 0;
+        }
+
+        private Stripe(int capacity) {
+            this.capacity = capacity;
+            this.keys = new long[capacity];
+            this.values = new Factorization[capacity];
+            this.prev = new int[capacity];
+            this.next = new int[capacity];
+            int slotCount = Integer.highestOneBit(2 * capacity - 1) << 1;
+            this.slots = new int[slotCount];
+            this.slotMask = slotCount - 1;
+        }
+
+    }
+
+    private final int capacity;
+
+    private final Stripe[] stripes;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private Stripe stripeFor(long key) {
+        return this.stripes[(int) (mix(key) >>> 60) & (this.stripes.length - 1)];
+    }
+
+    /**
+     * Gives the prime factorization of a number, from this cache if it's
+     * there, otherwise by factoring the number and then putting it in this
+     * cache.
+     * @param num The number to factor. May be negative. For example,
+     * 998244359987710471.
+     * @return The factorization, the same as {@link NTFC#primeFactors(long)}
+     * would give. For example, 998244353 &times; 1000000007.
+     */
+    public Factorization primeFactors(long num) {
+        Stripe stripe = this.stripeFor(num);
+        Factorization factorization = stripe.get(num);
+        if (factorization != null) {
+            this.hits.increment();
+            return factorization;
+        }
+        this.misses.increment();
+        factorization = NTFC.factor(num);
+        if (stripe.put(num, factorization)) {
+            this.evictions.increment();
+        }
+        return factorization;
+    }
+
+    /**
+     * Gives the largest number of entries this cache can hold.
+     * @return The capacity. For example, 4096.
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Counts the entries currently in this cache.
+     * @return The number of entries, at most the capacity.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : this.stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Counts the lookups that found the factorization in this cache.
+     * @return The number of hits since construction or the last call to
+     * {@link #clear()}.
+     */
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Counts the lookups that had to factor the number.
+     * @return The number of misses since construction or the last call to
+     * {@link #clear()}.
+     */
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Counts the entries that were evicted to make room for others.
+     * @return The number of evictions since construction or the last call to
+     * {@link #clear()}.
+     */
+    public long getEvictionCount() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * Removes all entries from this cache and resets the counters.
+     */
+    public void clear() {
+        for (Stripe stripe : this.stripes) {
+            stripe.clear();
+        }
+        this.hits.reset();
+        this.misses.reset();
+        this.evictions.reset();
+    }
+
+    /**
+     * Gives a summary of this cache.
+     * @return A String with the size, the capacity and the counters. For
+     * example, "FactorizationCache 1000/4096 (2500 hits, 1000 misses, 0
+     * evictions)".
+     */
+    @Override
+    public String toString() {
+        return "FactorizationCache " + this.size() + "/" + this.capacity
+                + " (" + this.getHitCount() + " hits, " + this.getMissCount()
+                + " misses, " + this.getEvictionCount() + " evictions)";
+    }
+
+    /**
+     * Constructs a cache with {@link #DEFAULT_CAPACITY}.
+     */
+    public FactorizationCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a cache with a given capacity.
+     * @param capacity The most entries the cache can hold. For example, 100.
+     * @throws IllegalArgumentException If <code>capacity</code> is less than
+     * 1, or so large the cache can't be allocated.
+     */
+    public FactorizationCache(int capacity) {
+        if (capacity < 1 || capacity > (1 << 29)) {
+            throw new IllegalArgumentException("Capacity " + capacity
+                    + " is out of range");
+        }
+        this.capacity = capacity;
+        int stripeCount = Math.min(MAX_STRIPES, Integer.highestOneBit(capacity));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            int stripeCapacity = capacity / stripeCount
+                    + (i < capacity % stripeCount ? 1 : 0);
+            this.stripes[i] = new Stripe(stripeCapacity);
+        }
+    }
+
+}
@@ -16,9 +16,22 @@
  */
 package katae.calculators;
 
+import katae.fractions.BigFraction;
 import katae.fractions.Fraction;
+import katae.fractions.FractionOverflowException;
+import katae.fractions.FractionVector;
+import katae.fractions.MutableFraction;
+import katae.fractions.Rational;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Performs calculations pertaining to fractions. Such as providing two
@@ -30,6 +43,187 @@ public class FractionsCalculator {
 
     private static final int GREEDY_CAP_DENOM = 1441;
 
+    /**
+     * The algorithms available for computing Egyptian fractions.
+     */
+    public enum Algorithm {
+
+        /**
+         * The greedy algorithm of Fibonacci and Sylvester, which at each step
+         * takes the largest unit fraction that fits. See {@link
+         * #getEgyptianFractionsGreedy(Fraction)}.
+         */
+        GREEDY,
+
+        /**
+         * Unit fractions whose denominators are divisors of the denominator
+         * of the given fraction. See {@link
+         * #getEgyptianFractionsByDenomDivisors(Fraction)}.
+         */
+        DENOM_DIVISORS
+
+    }
+
+    /**
+     * Gives the terms of the greedy algorithm one at a time. Each term is only
+     * computed when asked for. The remainder is kept in a {@link
+     * MutableFraction} for as long as it fits in <code>long</code>. When it
+     * doesn't, the remainder is promoted to {@link BigFraction}, and once it
+     * fits in <code>long</code> again it goes back to the mutable accumulator.
+     */
+    private static class GreedyIterator implements Iterator<Rational> {
+
+        private final MutableFraction currFract;
+        private Rational bigRemainder = null;
+        private Fraction wholePart = null;
+
+        /**
+         * Gives the largest unit fraction not greater than the remainder,
+         * without subtracting it.
+         * @return The unit fraction, or null if the remainder is 0 or
+         * negative.
+         */
+        Rational nextUnitFraction() {
+            if (this.bigRemainder == null) {
+                if (this.currFract.signum() <= 0) {
+                    return null;
+                }
+                long numer = this.currFract.getNumerator();
+                long denom = this.currFract.getDenominator();
+                return Fraction.valueOf(1, denom / numer + (denom % numer == 0 ? 0 : 1));
+            }
+            BigFraction remainder = this.bigRemainder.toBigFraction();
+            BigInteger[] quotRem = remainder.getDenominator().divideAndRemainder(remainder.getNumerator());
+            BigInteger currDenom = quotRem[1].signum() == 0 ? quotRem[0] : quotRem[0].add(BigInteger.ONE);
+            return BigFraction.valueOf(BigInteger.ONE, currDenom);
+        }
+
+        /**
+         * Subtracts a unit fraction from the remainder, promoting the
+         * remainder to {@link BigFraction} if the difference doesn't fit in
+         * <code>long</code>.
+         * @param unitFract The unit fraction, which should have been obtained
+         * from {@link #nextUnitFraction()}.
+         */
+        void subtract(Rational unitFract) {
+            if (this.bigRemainder == null) {
+                try {
+                    this.currFract.subtractInPlace((Fraction) unitFract);
+                    return;
+                } catch (FractionOverflowException foe) {
+                    this.bigRemainder = this.currFract.toFraction();
+                }
+            }
+            Rational difference = this.bigRemainder.minus(unitFract);
+            if (difference instanceof Fraction) {
+                this.currFract.set((Fraction) difference);
+                this.bigRemainder = null;
+            } else {
+                this.bigRemainder = difference;
+            }
+        }
+
+        /**
+         * Gives what is left to be broken down into unit fractions.
+         * @return The remainder. For example, 3/1200128 after 1/2, 1/4 and
+         * 1/586 have been taken from 3079/4096.
+         */
+        Rational remainder() {
+            return this.bigRemainder == null ? this.currFract.toFraction() : this.bigRemainder;
+        }
+
+        /**
+         * Gives the integer part of a fraction greater than 1, which is not
+         * part of the remainder, only once.
+         * @return The integer part, or null if the fraction was not greater
+         * than 1 or the integer part has already been given. For example, 2
+         * for 7/3.
+         */
+        Fraction takeWholePart() {
+            Fraction whole = this.wholePart;
+            this.wholePart = null;
+            return whole;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.wholePart != null || this.bigRemainder != null
+                    || this.currFract.signum() != 0;
+        }
+
+        @Override
+        public Rational next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException("No more Egyptian fractions");
+            }
+            if (this.wholePart != null) {
+                return this.takeWholePart();
+            }
+            Rational unitFract = this.nextUnitFraction();
+            if (unitFract == null) {
+                Fraction term = this.currFract.toFraction();
+                this.currFract.set(ZERO_FRACTION);
+                return term;
+            }
+            this.subtract(unitFract);
+            return unitFract;
+        }
+
+        GreedyIterator(Fraction fraction) {
+            this.currFract = new MutableFraction(fraction);
+            if (fraction.compareToOne() > 0) {
+                long whole = fraction.getNumerator() / fraction.getDenominator();
+                this.wholePart = Fraction.valueOf(whole, 1);
+                this.currFract.subtractInPlace(whole);
+            }
+        }
+
+    }
+
+    /**
+     * Gives the terms of the divisors of denominator algorithm one at a time.
+     * The divisors are found up front, but each term is only computed when
+     * asked for.
+     */
+    private static class DenomDivisorsIterator implements Iterator<Rational> {
+
+        private final long[] denomDivs;
+        private final MutableFraction currFract;
+        private int currIndex = 0;
+        private Fraction currUnitFract = null;
+
+        @Override
+        public boolean hasNext() {
+            if (this.currFract.signum() <= 0) {
+                return false;
+            }
+            while (this.currUnitFract == null
+                    || this.currFract.compareTo(this.currUnitFract) < 0) {
+                if (this.currIndex == this.denomDivs.length) {
+                    return false;
+                }
+                this.currUnitFract = Fraction.valueOf(1, this.denomDivs[this.currIndex]);
+                this.currIndex++;
+            }
+            return true;
+        }
+
+        @Override
+        public Fraction next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException("No more Egyptian fractions");
+            }
+            this.currFract.subtractInPlace(this.currUnitFract);
+            return this.currUnitFract;
+        }
+
+        DenomDivisorsIterator(Fraction fraction) {
+            this.denomDivs = NTFC.sortedDivisors(fraction.getDenominator());
+            this.currFract = new MutableFraction(fraction);
+        }
+
+    }
+
     private static final Fraction ZERO_FRACTION = new Fraction(0);
     private static final Fraction ONE_FRACTION = new Fraction(1);
 
@@ -43,59 +237,159 @@ public class FractionsCalculator {
      * will also be 1/2.
      */
     public static Fraction placeInUnitInterval(Fraction fraction) {
-        Fraction placed = fraction;
+        if (fraction.compareToZero() > 0 && fraction.compareToOne() <= 0) {
+            return fraction;
+        }
+        MutableFraction placed = new MutableFraction(fraction);
         while (placed.compareTo(ONE_FRACTION) > 0) {
-            placed = placed.minus(ONE_FRACTION);
+            placed.subtractInPlace(1);
         }
-        while (placed.compareTo(ZERO_FRACTION) <= 0) {
-            placed = placed.plus(ONE_FRACTION);
+        while (placed.signum() <= 0) {
+            placed.addInPlace(1);
         }
-        return placed;
+        return placed.toFraction();
     }
 
     /**
      * Gives a list of Egyptian fractions using the greedy algorithm. However,
-     * computation is in some cases capped at 1/1440, so that the program is not
-     * stuck in a seemingly endless loop. This means that this function may in
-     * some cases fail to find unit fractions with large denominators.
+     * computation is in some cases capped at 1/1441, so that the list doesn't
+     * get too long to display. This means that this function may in some cases
+     * fail to find unit fractions with large denominators. Unlike {@link
+     * #getEgyptianFractionsGreedy(Fraction, int, long)}, this function never
+     * promotes to {@link BigFraction}: if the remainder would be outside the
+     * range of <code>long</code>, it is given unprocessed.
      * @param fraction The fraction for which to compute the Egyptian fractions.
      * Two examples, 7/8, 3079/4096.
      * @return A list of Egyptian fractions, from largest to smallest (so the
      * fractions with the smaller denominators will be given first). Given 7/8,
      * the result will be a list containing 1/2, 1/3 and 1/24. In the case of
      * 3079/4096, the list will consist of 1/2, 1/4, 1/586 and 3/1200128, the
-     * last of which was obviously left unprocessed.
+     * last of which was obviously left unprocessed. For a fraction greater
+     * than 1, the integer part is given first, so for 7/3 the list consists
+     * of 2 and 1/3.
      */
     public static ArrayList<Fraction> getEgyptianFractionsGreedyCapped(Fraction fraction) {
         ArrayList<Fraction> eFs = new ArrayList<>();
-        Fraction currFract = fraction;
-        int currDenom = 0;
-        Fraction currUnitFract, currDiff;
-        boolean keepGoing = true;
-        do {
-            if (currFract.isUnitFraction()) {
-                eFs.add(currFract);
-                currDiff = ZERO_FRACTION;
-                keepGoing = false;
-            } else {
-                boolean unitFound;
-                do {
-                    currDenom++;
-                    currUnitFract = new Fraction(1, currDenom);
-                    currDiff = currFract.minus(currUnitFract);
-                    unitFound = (currDiff.compareTo(ZERO_FRACTION) >= 0);
-                } while (!unitFound && currDenom < 1025);
-                if (unitFound) {
-                    eFs.add(currUnitFract);
-                    currFract = currDiff;
-                } else {
-                    currDiff = currFract;
-                }
+        greedyCapped(fraction, eFs::add);
+        return eFs;
+    }
+
+    /**
+     * Gives the same Egyptian fractions as {@link
+     * #getEgyptianFractionsGreedyCapped(Fraction)}, but as a {@link
+     * FractionVector} rather than a list, so that no <code>Fraction</code>
+     * objects need to be kept.
+     * @param fraction The fraction for which to compute the Egyptian fractions.
+     * For example, 7/8.
+     * @return A vector of Egyptian fractions, from largest to smallest. Given
+     * 7/8, the result will be a vector containing 1/2, 1/3 and 1/24.
+     */
+    public static FractionVector getEgyptianFractionVectorGreedyCapped(Fraction fraction) {
+        FractionVector eFs = new FractionVector(8);
+        greedyCapped(fraction, eFs::add);
+        return eFs;
+    }
+
+    private static void greedyCapped(Fraction fraction, Consumer<Fraction> eFs) {
+        MutableFraction currFract = new MutableFraction(fraction);
+        if (fraction.compareToOne() > 0) {
+            long whole = fraction.getNumerator() / fraction.getDenominator();
+            eFs.accept(Fraction.valueOf(whole, 1));
+            currFract.subtractInPlace(whole);
+        }
+        while (currFract.signum() > 0) {
+            long numer = currFract.getNumerator();
+            long denom = currFract.getDenominator();
+            long currDenom = denom / numer + (denom % numer == 0 ? 0 : 1);
+            if (currDenom > GREEDY_CAP_DENOM) {
+                break;
             }
-            keepGoing = keepGoing && (currDenom < GREEDY_CAP_DENOM);
-        } while (keepGoing);
-        if (!currDiff.equals(ZERO_FRACTION)) {
-            eFs.add(currDiff);
+            Fraction currUnitFract = Fraction.valueOf(1, currDenom);
+            try {
+                currFract.subtractInPlace(currUnitFract);
+            } catch (FractionOverflowException foe) {
+                break;
+            }
+            eFs.accept(currUnitFract);
+        }
+        if (currFract.signum() != 0) {
+            eFs.accept(currFract.toFraction());
+        }
+    }
+
+    /**
+     * Gives a list of Egyptian fractions using the greedy algorithm, with no
+     * limit. The greedy algorithm always terminates, since each step leaves a
+     * remainder with a smaller numerator, but the denominators can grow very
+     * quickly. Once they outgrow <code>long</code>, the terms are given as
+     * {@link BigFraction}.
+     * @param fraction The fraction for which to compute the Egyptian fractions.
+     * For example, 3079/4096.
+     * @return A list of Egyptian fractions, from largest to smallest. Given
+     * 3079/4096, the result will be a list containing 1/2, 1/4, 1/586,
+     * 1/400043 and 1/480102805504, all of them {@link Fraction}. Given 5/121,
+     * the result will be 1/25, 1/757, 1/763309, 1/873960180913 and
+     * 1/1527612795642093418846225, the last of which is a
+     * <code>BigFraction</code>.
+     */
+    public static ArrayList<Rational> getEgyptianFractionsGreedy(Fraction fraction) {
+        ArrayList<Rational> eFs = new ArrayList<>();
+        new GreedyIterator(fraction).forEachRemaining(eFs::add);
+        return eFs;
+    }
+
+    /**
+     * Gives a list of Egyptian fractions using the greedy algorithm of
+     * Fibonacci and Sylvester. The largest unit fraction not greater than
+     * <i>n</i>/<i>d</i> is 1/&lceil;<i>d</i>/<i>n</i>&rceil;, so each term is
+     * obtained with one division rather than by trying one denominator after
+     * another. The remainder is promoted to {@link BigFraction} when it no
+     * longer fits in <code>long</code>, so the result doesn't depend on the
+     * range of <code>long</code>.
+     * @param fraction The fraction for which to compute the Egyptian fractions.
+     * Should be positive. For example, 3079/4096.
+     * @param maxTerms The most unit fractions to give. For example, 3.
+     * @param maxDenom The largest denominator to give. For example, 1000000.
+     * @return A list of Egyptian fractions, from largest to smallest. If one of
+     * the limits is reached before the fraction is fully broken down, the
+     * remainder is given at the end of the list, unprocessed. For example,
+     * with the example parameters, the list would consist of 1/2, 1/4, 1/586
+     * and 3/1200128. A fraction that is 0 or negative is not processed at all,
+     * so for 0 the list is empty and for &minus;1/2 it just contains
+     * &minus;1/2. For a fraction greater than 1, the integer part is given
+     * first, as a single term that counts towards <code>maxTerms</code>, so
+     * for 7/3 the list consists of 2 and 1/3.
+     * @throws IllegalArgumentException If <code>maxTerms</code> is negative or
+     * <code>maxDenom</code> is less than 1.
+     */
+    public static ArrayList<Rational> getEgyptianFractionsGreedy(Fraction fraction, int maxTerms, long maxDenom) {
+        if (maxTerms < 0) {
+            throw new IllegalArgumentException("Maximum number of terms " + maxTerms + " should not be negative");
+        }
+        if (maxDenom < 1) {
+            throw new IllegalArgumentException("Maximum denominator " + maxDenom + " should be positive");
+        }
+        ArrayList<Rational> eFs = new ArrayList<>();
+        GreedyIterator iterator = new GreedyIterator(fraction);
+        Fraction wholePart = iterator.takeWholePart();
+        if (wholePart != null) {
+            if (maxTerms == 0) {
+                eFs.add(fraction);
+                return eFs;
+            }
+            eFs.add(wholePart);
+        }
+        Fraction smallestUnitFract = Fraction.valueOf(1, maxDenom);
+        Rational currUnitFract = iterator.nextUnitFraction();
+        while (currUnitFract != null && eFs.size() < maxTerms
+                && currUnitFract.compareTo(smallestUnitFract) >= 0) {
+            iterator.subtract(currUnitFract);
+            eFs.add(currUnitFract);
+            currUnitFract = iterator.nextUnitFraction();
+        }
+        Rational remainder = iterator.remainder();
+        if (remainder.compareTo(ZERO_FRACTION) != 0) {
+            eFs.add(remainder);
         }
         return eFs;
     }
@@ -113,23 +407,78 @@ public class FractionsCalculator {
      * 3079/4096, the list will consist of 1/2, 1/4, 1/1024, 1/2048 and 1/4096.
      */
     public static ArrayList<Fraction> getEgyptianFractionsByDenomDivisors(Fraction fraction) {
-        ArrayList<Long> denomDivs = NTFC.divisors(fraction.getDenominator());
-        int currIndex = 0;
-        Fraction currFract = fraction;
-        Fraction currUnitFract, currDiff;
         ArrayList<Fraction> eFs = new ArrayList<>();
-        while (currIndex < denomDivs.size()) {
-            currUnitFract = new Fraction(1, denomDivs.get(currIndex));
-            do {
-                currDiff = currFract.minus(currUnitFract);
-                if (currDiff.compareTo(ZERO_FRACTION) >= 0) {
-                    eFs.add(currUnitFract);
-                    currFract = currDiff;
-                }
-            } while (currDiff.compareTo(ZERO_FRACTION) > 0);
-            currIndex++;
+        DenomDivisorsIterator iterator = new DenomDivisorsIterator(fraction);
+        while (iterator.hasNext()) {
+            eFs.add(iterator.next());
         }
         return eFs;
     }
 
+    /**
+     * Gives the same Egyptian fractions as {@link
+     * #getEgyptianFractionsByDenomDivisors(Fraction)}, but as a {@link
+     * FractionVector} rather than a list, so that no <code>Fraction</code>
+     * objects need to be kept.
+     * @param fraction The fraction for which to compute the Egyptian fractions.
+     * For example, 3079/4096.
+     * @return A vector of Egyptian fractions, from largest to smallest. Given
+     * 3079/4096, the vector will hold 1/2, 1/4, 1/1024, 1/2048 and 1/4096.
+     */
+    public static FractionVector getEgyptianFractionVectorByDenomDivisors(Fraction fraction) {
+        FractionVector eFs = new FractionVector(8);
+        DenomDivisorsIterator iterator = new DenomDivisorsIterator(fraction);
+        while (iterator.hasNext()) {
+            eFs.add(iterator.next());
+        }
+        return eFs;
+    }
+
+    /**
+     * Gives an iterator over the Egyptian fractions for a fraction. Unlike
+     * the functions that give a list, the terms are computed one at a time,
+     * as they are asked for, so a caller that only needs the first few terms
+     * doesn't pay for the rest. With the greedy algorithm there is no cap:
+     * once a term would be outside the range of <code>long</code>, it is given
+     * as a {@link BigFraction}, and for a fraction greater than 1 the first
+     * term is the integer part.
+     * @param fraction The fraction for which to compute the Egyptian
+     * fractions. For example, 3079/4096.
+     * @param algorithm Which algorithm to use. For example, {@link
+     * Algorithm#GREEDY}.
+     * @return An iterator over the Egyptian fractions, from largest to
+     * smallest. With the example parameters, the iterator would give 1/2,
+     * 1/4, 1/586, 1/400043 and 1/480102805504.
+     */
+    public static Iterator<Rational> egyptianFractionIterator(Fraction fraction, Algorithm algorithm) {
+        switch (algorithm) {
+            case GREEDY:
+                return new GreedyIterator(fraction);
+            case DENOM_DIVISORS:
+                return new DenomDivisorsIterator(fraction);
+            default:
+                throw new IllegalArgumentException("Unrecognized algorithm " + algorithm);
+        }
+    }
+
+    /**
+     * Gives a lazy stream of the Egyptian fractions for a fraction. This makes
+     * it possible to stop at a threshold without computing the long tail, for
+     * example with <code>takeWhile</code> or <code>limit</code>. See {@link
+     * #egyptianFractionIterator(Fraction, Algorithm)} for details.
+     * @param fraction The fraction for which to compute the Egyptian
+     * fractions. For example, 7/8.
+     * @param algorithm Which algorithm to use. For example, {@link
+     * Algorithm#DENOM_DIVISORS}.
+     * @return A sequential, ordered stream of the Egyptian fractions, from
+     * largest to smallest. With the example parameters, the stream would give
+     * 1/2, 1/4 and 1/8.
+     */
+    public static Stream<Rational> egyptianFractionStream(Fraction fraction, Algorithm algorithm) {
+        Spliterator<Rational> spliterator = Spliterators.spliteratorUnknownSize(
+                egyptianFractionIterator(fraction, algorithm),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+        return StreamSupport.stream(spliterator, false);
+    }
+
 }
@@ -0,0 +1,230 @@
+package katae.calculators;
+
+/**
+ * Tables of how the primes up to a bound split in each of the nine imaginary
+ * quadratic fields of class number 1, the fields <b>Q</b>(&radic;<i>d</i>)
+ * for <i>d</i> in {@link NTFC#HEEGNER_NUMBERS}. A prime <i>p</i> splits,
+ * stays inert or ramifies according to whether the Kronecker symbol
+ * (<i>D</i>|<i>p</i>) is 1, &minus;1 or 0, where <i>D</i> is the
+ * discriminant of the field, which is <i>d</i> if <i>d</i> = 1 mod 4 and
+ * 4<i>d</i> otherwise.
+ * <p>The table for a field is only filled in the first time that field is
+ * asked about. Since (<i>D</i>|<i>n</i>) only depends on <i>n</i> mod
+ * |<i>D</i>|, and |<i>D</i>| is at most 163, filling in a table takes one
+ * symbol computation per residue and then one array read per prime. Each
+ * table holds one bit per odd number, on if that number is a prime that
+ * splits, so that a table up to <i>n</i> takes up about <i>n</i>/16 bytes.
+ * The only odd prime that ramifies is &minus;<i>d</i> itself, for odd
+ * <i>d</i>, and the prime 2 is handled separately, so after that one bit is
+ * all a lookup needs.</p>
+ * <p>Lookups may happen from several threads at once.</p>
+ * @author Alonso del Arte
+ */
+public final class HeegnerFieldTables {
+
+    /**
+     * The ways a prime can split in a quadratic field.
+     */
+    public enum Splitting {
+
+        /**
+         * The prime is a product of two distinct conjugate primes in the
+         * field, for example, 2 in <b>Q</b>(&radic;&minus;7).
+         */
+        SPLIT,
+
+        /**
+         * The prime is still prime in the field, for example, 3 in
+         * <b>Q</b>(&radic;&minus;1).
+         */
+        INERT,
+
+        /**
+         * The prime is the square of a prime in the field, up to a unit, for
+         * example, 2 in <b>Q</b>(&radic;&minus;1).
+         */
+        RAMIFIED
+
+    }
+
+    /**
+     * The bound of tables constructed without specifying a bound. This is
+     * 2<sup>16</sup>.
+     */
+    public static final int DEFAULT_BOUND = 1 << 16;
+
+    private static final class FieldTable {
+
+        private final int heegnerNumber;
+
+        private final int discriminant;
+
+        /**
+         * Bit <i>i</i> is on if 2<i>i</i> + 1 is a prime that splits. Null
+         * until first needed.
+         */
+        private volatile long[] splitBits;
+
+        private FieldTable(int heegnerNumber) {
+            this.heegnerNumber = heegnerNumber;
+            this.discriminant = (heegnerNumber & 3) == 1 ? heegnerNumber
+                    : 4 * heegnerNumber;
+        }
+
+    }
+
+    private final int bound;
+
+    private final PrimeSieve sieve;
+
+    private final FieldTable[] fields;
+
+    /**
+     * Gives the largest number these tables cover.
+     * @return The bound. For example, 65536.
+     */
+    public int getBound() {
+        return this.bound;
+    }
+
+    private FieldTable field(int heegnerNumber) {
+        for (FieldTable field : this.fields) {
+            if (field.heegnerNumber == heegnerNumber) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException(heegnerNumber
+                + " is not one of the Heegner numbers");
+    }
+
+    /**
+     * Gives the discriminant of one of the Heegner fields.
+     * @param heegnerNumber One of the numbers in {@link
+     * NTFC#HEEGNER_NUMBERS}. For example, &minus;2.
+     * @return The discriminant. For example, &minus;8.
+     * @throws IllegalArgumentException If <code>heegnerNumber</code> is not
+     * one of the Heegner numbers.
+     */
+    public int getDiscriminant(int heegnerNumber) {
+        return this.field(heegnerNumber).discriminant;
+    }
+
+    /**
+     * Fills in the table for a field if it hasn't been filled in yet.
+     */
+    private long[] splitBits(FieldTable field) {
+        long[] bits = field.splitBits;
+        if (bits != null) {
+            return bits;
+        }
+        synchronized (field) {
+            bits = field.splitBits;
+            if (bits == null) {
+                int modulus = -field.discriminant;
+                boolean[] splitResidues = new boolean[modulus];
+                for (int r = 1; r < modulus; r++) {
+                    splitResidues[r] = NTFC.symbolKronecker(field.discriminant,
+                            r) == 1;
+                }
+                bits = new long[(int) ((((long) this.bound + 1) / 2 + 63)
+                        >> 6)];
+                for (int p = this.sieve.nextPrime(2); p > 0;
+                        p = this.sieve.nextPrime(p)) {
+                    if (splitResidues[p % modulus]) {
+                        int index = p >> 1;
+                        bits[index >> 6] |= 1L << index;
+                    }
+                }
+                field.splitBits = bits;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Tells how a prime splits in one of the Heegner fields. After the first
+     * lookup for a given field, this is just an array read.
+     * @param heegnerNumber One of the numbers in {@link
+     * NTFC#HEEGNER_NUMBERS}. For example, &minus;7.
+     * @param p A prime no greater than the bound of these tables. For example,
+     * 11.
+     * @return How the prime splits. For example, {@link Splitting#SPLIT},
+     * since 11 = (2 + &radic;&minus;7)(2 &minus; &radic;&minus;7).
+     * @throws IllegalArgumentException If <code>heegnerNumber</code> is not
+     * one of the Heegner numbers, or if <code>p</code> is not a prime from 2
+     * up to the bound.
+     */
+    public Splitting splitting(int heegnerNumber, int p) {
+        FieldTable field = this.field(heegnerNumber);
+        if (p < 2 || p > this.bound || !this.sieve.isPrime(p)) {
+            throw new IllegalArgumentException(p + " is not a prime from 2 to "
+                    + this.bound);
+        }
+        if (p == 2) {
+            switch (field.discriminant & 7) {
+                case 1:
+                    return Splitting.SPLIT;
+                case 5:
+                    return Splitting.INERT;
+                default:
+                    return Splitting.RAMIFIED;
+            }
+        }
+        if (p == -heegnerNumber) {
+            return Splitting.RAMIFIED;
+        }
+        long[] bits = this.splitBits(field);
+        int index = p >> 1;
+        return (bits[index >> 6] & (1L << index)) != 0 ? Splitting.SPLIT
+                : Splitting.INERT;
+    }
+
+    /**
+     * Gives the Kronecker symbol (<i>D</i>|<i>p</i>) for the discriminant
+     * <i>D</i> of one of the Heegner fields, by looking up how <i>p</i>
+     * splits. For odd <i>p</i>, this is also the Legendre symbol
+     * (<i>d</i>|<i>p</i>).
+     * @param heegnerNumber One of the numbers in {@link
+     * NTFC#HEEGNER_NUMBERS}. For example, &minus;163.
+     * @param p A prime no greater than the bound of these tables. For example,
+     * 41.
+     * @return 1 if <i>p</i> splits, &minus;1 if it's inert, 0 if it ramifies.
+     * For example, 1, since &minus;163 = 1 mod 41, which is a square.
+     * @throws IllegalArgumentException If <code>heegnerNumber</code> is not
+     * one of the Heegner numbers, or if <code>p</code> is not a prime from 2
+     * up to the bound.
+     */
+    public byte symbolKronecker(int heegnerNumber, int p) {
+        switch (this.splitting(heegnerNumber, p)) {
+            case SPLIT:
+                return 1;
+            case INERT:
+                return -1;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Constructs tables up to {@link #DEFAULT_BOUND}.
+     */
+    public HeegnerFieldTables() {
+        this(DEFAULT_BOUND);
+    }
+
+    /**
+     * Constructs tables up to a given bound. No table is filled in until it's
+     * needed.
+     * @param bound The largest prime to cover. For example, 1000.
+     * @throws IllegalArgumentException If <code>bound</code> is negative.
+     */
+    public HeegnerFieldTables(int bound) {
+        this.sieve = new PrimeSieve(bound);
+        this.bound = bound;
+        this.fields = new FieldTable[NTFC.HEEGNER_NUMBERS.length];
+        for (int i = 0; i < this.fields.length; i++) {
+            this.fields[i] = new FieldTable(NTFC.HEEGNER_NUMBERS[i]);
+        }
+    }
+
+}
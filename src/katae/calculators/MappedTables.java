@@ -0,0 +1,406 @@
+package katae.calculators;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Tables of which numbers are prime, of smallest prime factors and of the
+ * M&ouml;bius function &mu;, for all the integers from 0 up to a bound, kept
+ * in a file and mapped into memory read-only. Lookups read straight from the
+ * mapped file, with nothing to read in or unpack first, and since the file is
+ * mapped rather than copied, processes on the same machine that open the same
+ * file share one copy of it in the operating system's page cache. To have
+ * {@link NTFC#isPrime(long)}, {@link NTFC#primeFactors(long)}, {@link
+ * NTFC#moebiusMu(int)} and the like look numbers up here, pass the tables to
+ * {@link NTFC#setMappedTables(MappedTables)}.
+ * <p>The file starts with a header of 64 bytes holding a magic number, a
+ * format version, the bound, the length of the file and a CRC-32 checksum of
+ * the rest of the header and of the tables. When a file is opened, all of
+ * these are checked, and if any of them is wrong, as when the file is
+ * truncated, left over from an older version or for a smaller bound, the file
+ * is built again. A new file is written under a temporary name and then moved
+ * into place, so that other processes never see it half written.</p>
+ * <p>After the header come three tables, all little-endian. The first holds
+ * one bit per odd number, the same as {@link PrimeSieve}, on if the number is
+ * prime. The second holds the smallest prime factor of each number as an
+ * unsigned 16-bit number, which is enough because the smallest prime factor
+ * of a composite number is no more than its square root; the entry for a
+ * prime is 0. The third holds &mu; of each number as a signed byte. All
+ * together, the tables take up a little over 3 bytes per number. They're
+ * filled in by a single pass of the linear sieve of Euler, as in {@link
+ * ArithmeticFunctionTable}, writing straight to the mapped file.</p>
+ * <p>Instances are immutable, and lookups may happen from several threads at
+ * once. The mapping lasts until the instance is garbage collected.</p>
+ * @author Alonso del Arte
+ */
+public final class MappedTables {
+
+    /**
+     * The largest bound for which tables can be built. This is
+     * 2<sup>29</sup>, for a file of about 1.6 gigabytes.
+     */
+    public static final int MAX_BOUND = 1 << 29;
+
+    /**
+     * The first 8 bytes of the file, "KATAEMT" followed by a 0 byte, read as
+     * a little-endian <code>long</code>.
+     */
+    private static final long MAGIC = 0x00544D454154414BL;
+
+    /**
+     * The version of the file format. This goes up whenever the layout
+     * changes, so that files in the old layout get built again.
+     */
+    private static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 64;
+
+    /**
+     * How many bytes of the header are covered by the checksum. These are the
+     * magic number, the version, the bound and the length of the file.
+     */
+    private static final int CHECKED_HEADER_BYTES = 24;
+
+    private static final int CHECKSUM_POSITION = 24;
+
+    private final Path path;
+
+    private final int bound;
+
+    private final boolean rebuilt;
+
+    private final LongBuffer sieveBits;
+
+    private final CharBuffer smallestPrimeFactors;
+
+    private final ByteBuffer moebiusValues;
+
+    /**
+     * Where each table starts in a file for a given bound, and where the file
+     * ends.
+     */
+    private static final class Layout {
+
+        private final long sieveOffset;
+        private final long spfOffset;
+        private final long moebiusOffset;
+        private final long fileLength;
+
+        private Layout(int bound) {
+            long sieveWords = (((long) bound + 1) / 2 + 63) >> 6;
+            this.sieveOffset = HEADER_BYTES;
+            this.spfOffset = this.sieveOffset + 8 * sieveWords;
+            this.moebiusOffset = this.spfOffset + 2 * ((long) bound + 1);
+            this.fileLength = this.moebiusOffset + bound + 1;
+        }
+
+    }
+
+    private static MappedByteBuffer map(FileChannel channel,
+            FileChannel.MapMode mode, long from, long to) throws IOException {
+        MappedByteBuffer buffer = channel.map(mode, from, to - from);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    /**
+     * Works out the checksum of the start of the header and of all the tables.
+     */
+    private static long checksum(ByteBuffer header, ByteBuffer... tables) {
+        CRC32 crc = new CRC32();
+        ByteBuffer checkedHeader = header.duplicate();
+        checkedHeader.position(0).limit(CHECKED_HEADER_BYTES);
+        crc.update(checkedHeader);
+        for (ByteBuffer table : tables) {
+            crc.update(table.duplicate().clear());
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Runs the linear sieve up to a bound and writes the tables to a file.
+     */
+    private static void write(Path file, int bound) throws IOException {
+        Layout layout = new Layout(bound);
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer sieveBuffer = map(channel,
+                    FileChannel.MapMode.READ_WRITE, layout.sieveOffset,
+                    layout.spfOffset);
+            MappedByteBuffer spfBuffer = map(channel,
+                    FileChannel.MapMode.READ_WRITE, layout.spfOffset,
+                    layout.moebiusOffset);
+            MappedByteBuffer moebiusBuffer = map(channel,
+                    FileChannel.MapMode.READ_WRITE, layout.moebiusOffset,
+                    layout.fileLength);
+            LongBuffer bits = sieveBuffer.asLongBuffer();
+            CharBuffer spfs = spfBuffer.asCharBuffer();
+            // The file starts out all zeros, so every entry starts out as 0
+            int[] primes = new int[Math.max(16,
+                    (int) (1.26 * (bound + 1) / Math.log(bound + 2)) + 16)];
+            int primeCount = 0;
+            if (bound >= 1) {
+                spfs.put(1, (char) 1);
+                moebiusBuffer.put(1, (byte) 1);
+            }
+            for (int i = 2; i <= bound; i++) {
+                int spf = spfs.get(i);
+                byte mu = moebiusBuffer.get(i);
+                if (spf == 0) {
+                    spf = i;
+                    mu = -1;
+                    moebiusBuffer.put(i, mu);
+                    primes[primeCount++] = i;
+                    if ((i & 1) == 1) {
+                        int index = i >> 1;
+                        bits.put(index >> 6, bits.get(index >> 6)
+                                | (1L << index));
+                    }
+                }
+                for (int j = 0; j < primeCount; j++) {
+                    int p = primes[j];
+                    if (p > spf || (long) i * p > bound) {
+                        break;
+                    }
+                    int multiple = i * p;
+                    spfs.put(multiple, (char) p);
+                    moebiusBuffer.put(multiple, p == spf ? 0 : (byte) -mu);
+                }
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(0, MAGIC);
+            header.putInt(8, VERSION);
+            header.putInt(12, bound);
+            header.putLong(16, layout.fileLength);
+            header.putLong(CHECKSUM_POSITION, checksum(header, sieveBuffer,
+                    spfBuffer, moebiusBuffer));
+            sieveBuffer.force();
+            spfBuffer.force();
+            moebiusBuffer.force();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Reads the header of a file and, if it checks out for at least the given
+     * bound, gives the bound in the file. Otherwise, gives &minus;1.
+     */
+    private static int readValidBound(FileChannel channel, int minBound)
+            throws IOException {
+        long size = channel.size();
+        if (size < HEADER_BYTES) {
+            return -1;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                return -1;
+            }
+        }
+        int fileBound = header.getInt(12);
+        if (header.getLong(0) != MAGIC || header.getInt(8) != VERSION
+                || fileBound < minBound || fileBound > MAX_BOUND) {
+            return -1;
+        }
+        Layout layout = new Layout(fileBound);
+        if (header.getLong(16) != layout.fileLength
+                || size != layout.fileLength) {
+            return -1;
+        }
+        long expected = checksum(header,
+                map(channel, FileChannel.MapMode.READ_ONLY,
+                        layout.sieveOffset, layout.spfOffset),
+                map(channel, FileChannel.MapMode.READ_ONLY,
+                        layout.spfOffset, layout.moebiusOffset),
+                map(channel, FileChannel.MapMode.READ_ONLY,
+                        layout.moebiusOffset, layout.fileLength));
+        return header.getLong(CHECKSUM_POSITION) == expected ? fileBound : -1;
+    }
+
+    /**
+     * Opens the tables in a file, building the file first if it doesn't exist
+     * or doesn't check out. Opening a file that checks out means reading it
+     * through once to work out the checksum, which also brings it into the
+     * page cache.
+     * @param path The file. For example, a file named "tables.bin" in the
+     * temporary directory. The directory must exist.
+     * @param bound The largest number the tables need to cover. For example,
+     * 10000000. If the file covers a larger bound, it is used as is.
+     * @return The tables, mapped read-only.
+     * @throws IllegalArgumentException If <code>bound</code> is negative or
+     * greater than {@link #MAX_BOUND}.
+     * @throws IOException If the file can't be read, written or mapped.
+     */
+    public static MappedTables open(Path path, int bound) throws IOException {
+        if (bound < 0 || bound > MAX_BOUND) {
+            throw new IllegalArgumentException("Bound " + bound
+                    + " is out of range");
+        }
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.READ)) {
+            int fileBound = readValidBound(channel, bound);
+            if (fileBound >= 0) {
+                return new MappedTables(path, fileBound, false, channel);
+            }
+        } catch (NoSuchFileException nsfe) {
+            // Build it below
+        }
+        Path dir = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, path.getFileName().toString(),
+                ".tmp");
+        try {
+            write(temp, bound);
+            MappedTables tables;
+            try (FileChannel channel = FileChannel.open(temp,
+                    StandardOpenOption.READ)) {
+                tables = new MappedTables(path, bound, true, channel);
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException amnse) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return tables;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Gives the largest number these tables cover.
+     * @return The bound. For example, 10000000.
+     */
+    public int getBound() {
+        return this.bound;
+    }
+
+    /**
+     * Tells whether the file had to be built when these tables were opened.
+     * @return True if the file was missing or didn't check out and was built
+     * again, false if the file was used as it was.
+     */
+    public boolean isRebuilt() {
+        return this.rebuilt;
+    }
+
+    private void checkRange(int num) {
+        if (num < 0 || num > this.bound) {
+            throw new IllegalArgumentException("The number " + num
+                    + " is outside the range 0 to " + this.bound
+                    + " of these tables");
+        }
+    }
+
+    /**
+     * Tells whether a number is prime by looking it up in these tables.
+     * @param num The number to look up. May be negative. For example,
+     * &minus;9999991.
+     * @return True if the number is prime (even if negative), false otherwise.
+     * For example, true.
+     * @throws IllegalArgumentException If the absolute value of
+     * <code>num</code> is greater than the bound.
+     */
+    public boolean isPrime(int num) {
+        long n = Math.abs((long) num);
+        if (n > this.bound) {
+            throw new IllegalArgumentException("The number " + num
+                    + " is beyond the bound " + this.bound
+                    + " of these tables");
+        }
+        if ((n & 1) == 0) {
+            return n == 2;
+        }
+        int index = (int) (n >> 1);
+        return (this.sieveBits.get(index >> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * Gives the smallest prime factor of a number.
+     * @param num The number. For example, 9998267.
+     * @return The smallest prime factor. For example, 1117. For a prime, the
+     * prime itself. As in {@link ArithmeticFunctionTable}, the smallest prime
+     * factor of 0 is given as 0 and that of 1 as 1.
+     * @throws IllegalArgumentException If <code>num</code> is negative or
+     * greater than the bound.
+     */
+    public int smallestPrimeFactor(int num) {
+        this.checkRange(num);
+        int spf = this.smallestPrimeFactors.get(num);
+        return spf == 0 ? num : spf;
+    }
+
+    /**
+     * Gives the M&ouml;bius function of a number.
+     * @param num The number. For example, 9998267.
+     * @return 1 if the number is squarefree with an even number of prime
+     * factors, &minus;1 if squarefree with an odd number of prime factors, 0
+     * if not squarefree. For example, 1, since 9998267 = 1117 &times; 8951.
+     * @throws IllegalArgumentException If <code>num</code> is negative or
+     * greater than the bound.
+     */
+    public byte moebiusMu(int num) {
+        this.checkRange(num);
+        return this.moebiusValues.get(num);
+    }
+
+    /**
+     * Tells whether a number is squarefree.
+     * @param num The number. For example, 9999972.
+     * @return True if no prime divides the number more than once, false
+     * otherwise. For example, false, since 9999972 is divisible by 4.
+     * @throws IllegalArgumentException If <code>num</code> is negative or
+     * greater than the bound.
+     */
+    public boolean isSquareFree(int num) {
+        this.checkRange(num);
+        return this.moebiusValues.get(num) != 0;
+    }
+
+    /**
+     * Gives a summary of these tables.
+     * @return A String with the bound and the file. For example,
+     * "MappedTables up to 10000000 in /tmp/tables.bin".
+     */
+    @Override
+    public String toString() {
+        return "MappedTables up to " + this.bound + " in " + this.path;
+    }
+
+    /**
+     * Maps the tables from a file that has already been checked, through the
+     * same channel it was checked through, so that it can't be swapped for
+     * another file in between.
+     */
+    private MappedTables(Path path, int bound, boolean rebuilt,
+            FileChannel channel) throws IOException {
+        this.path = path;
+        this.bound = bound;
+        this.rebuilt = rebuilt;
+        Layout layout = new Layout(bound);
+        this.sieveBits = map(channel, FileChannel.MapMode.READ_ONLY,
+                layout.sieveOffset, layout.spfOffset).asLongBuffer();
+        this.smallestPrimeFactors = map(channel,
+                FileChannel.MapMode.READ_ONLY, layout.spfOffset,
+                layout.moebiusOffset).asCharBuffer();
+        this.moebiusValues = map(channel, FileChannel.MapMode.READ_ONLY,
+                layout.moebiusOffset, layout.fileLength);
+    }
+
+}
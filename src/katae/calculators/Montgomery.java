@@ -0,0 +1,150 @@
+package katae.calculators;
+
+/**
+ * Modular multiplication in Montgomery form, for an odd modulus less than
+ * 2<sup>63</sup>. A residue <i>a</i> is held as <i>aR</i> mod <i>n</i>, with
+ * <i>R</i> = 2<sup>64</sup>, so that the product of two residues can be
+ * reduced with two multiplications and a subtraction instead of a 128-bit
+ * division. The 128-bit products come from {@link Math#multiplyHigh(long,
+ * long)}, so no {@link java.math.BigInteger} is ever needed.
+ * <p>Residues passed to and returned by {@link #multiply(long, long)} and
+ * {@link #pow(long, long)} are in Montgomery form. Use {@link
+ * #toMontgomery(long)} and {@link #fromMontgomery(long)} to convert.</p>
+ * @author Alonso del Arte
+ */
+final class Montgomery {
+
+    private final long modulus;
+
+    /**
+     * The multiplicative inverse of the modulus modulo 2<sup>64</sup>.
+     */
+    private final long inverse;
+
+    /**
+     * <i>R</i> mod <i>n</i>, which is 1 in Montgomery form.
+     */
+    private final long one;
+
+    /**
+     * <i>R</i><sup>2</sup> mod <i>n</i>, for converting into Montgomery form.
+     */
+    private final long rSquared;
+
+    long getModulus() {
+        return this.modulus;
+    }
+
+    /**
+     * Gives 1 in Montgomery form.
+     * @return <i>R</i> mod <i>n</i>.
+     */
+    long one() {
+        return this.one;
+    }
+
+    /**
+     * Gives &minus;1 in Montgomery form.
+     * @return <i>n</i> &minus; (<i>R</i> mod <i>n</i>).
+     */
+    long minusOne() {
+        return this.modulus - this.one;
+    }
+
+    /**
+     * Montgomery reduction of a 128-bit value less than <i>nR</i>. The low
+     * word of <i>m</i> &times; <i>n</i> equals the low word of the value by
+     * construction, so only the high words need to be subtracted.
+     */
+    private long reduce(long high, long low) {
+        long m = low * this.inverse;
+        long mnHigh = Math.multiplyHigh(m, this.modulus);
+        if (m < 0) {
+            mnHigh += this.modulus; // Correct signed high word to unsigned
+        }
+        long result = high - mnHigh;
+        return result < 0 ? result + this.modulus : result;
+    }
+
+    /**
+     * Multiplies two residues in Montgomery form.
+     * @param a A residue in Montgomery form, at least 0 and less than the
+     * modulus.
+     * @param b A residue in Montgomery form, at least 0 and less than the
+     * modulus.
+     * @return The product, in Montgomery form.
+     */
+    long multiply(long a, long b) {
+        return this.reduce(Math.multiplyHigh(a, b), a * b);
+    }
+
+    /**
+     * Raises a residue in Montgomery form to a power.
+     * @param base A residue in Montgomery form.
+     * @param exponent The exponent. Must not be negative.
+     * @return The power, in Montgomery form.
+     */
+    long pow(long base, long exponent) {
+        long result = this.one;
+        long square = base;
+        long e = exponent;
+        while (e != 0) {
+            if ((e & 1) != 0) {
+                result = this.multiply(result, square);
+            }
+            e >>>= 1;
+            if (e != 0) {
+                square = this.multiply(square, square);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Converts a number into Montgomery form.
+     * @param a The number. Must not be negative. For example, 2.
+     * @return <i>aR</i> mod <i>n</i>.
+     */
+    long toMontgomery(long a) {
+        return this.multiply(a % this.modulus, this.rSquared);
+    }
+
+    /**
+     * Converts a residue out of Montgomery form.
+     * @param a The residue in Montgomery form.
+     * @return The ordinary residue, at least 0 and less than the modulus.
+     */
+    long fromMontgomery(long a) {
+        return this.reduce(0, a);
+    }
+
+    /**
+     * Sets up Montgomery arithmetic for a modulus.
+     * @param modulus The modulus. Must be odd, greater than 1 and less than
+     * 2<sup>63</sup>. For example, 2147483659.
+     * @throws IllegalArgumentException If <code>modulus</code> is even or less
+     * than 3.
+     */
+    Montgomery(long modulus) {
+        if (modulus < 3 || (modulus & 1) == 0) {
+            throw new IllegalArgumentException("Modulus " + modulus
+                    + " should be odd and greater than 1");
+        }
+        this.modulus = modulus;
+        long inv = modulus; // Correct to 3 bits, since n * n = 1 mod 8
+        for (int i = 0; i < 5; i++) {
+            inv *= 2 - modulus * inv; // Newton's method doubles correct bits
+        }
+        this.inverse = inv;
+        this.one = Long.remainderUnsigned(-modulus, modulus);
+        long r2 = this.one;
+        for (int i = 0; i < 64; i++) {
+            r2 <<= 1; // Can't overflow as unsigned, since r2 < 2^63
+            if (Long.compareUnsigned(r2, modulus) >= 0) {
+                r2 -= modulus;
+            }
+        }
+        this.rSquared = r2;
+    }
+
+}
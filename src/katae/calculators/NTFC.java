@@ -1,10 +1,12 @@
 package katae.calculators;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class NTFC {
 
@@ -24,9 +26,59 @@ public class NTFC {
      */
     public static final int[] HEEGNER_NUMBERS = {-163, -67, -43, -19, -11, -7, -3, -2, -1};
 
-    /* (RESTORE JAVADOC WHEN CORRECTED) *
-     * Determines the prime factors of a given number. Uses simple trial
-     * division with only basic optimization.
+    private static final HeegnerFieldTables HEEGNER_TABLES
+            = new HeegnerFieldTables();
+
+    /**
+     * Gives the tables of how primes split in the fields for {@link
+     * #HEEGNER_NUMBERS}, up to {@link HeegnerFieldTables#DEFAULT_BOUND}. Each
+     * field's table is only filled in the first time it's needed.
+     * @return The shared tables.
+     */
+    public static HeegnerFieldTables heegnerFieldTables() {
+        return HEEGNER_TABLES;
+    }
+
+    private static final PrimeSieve SIEVE = new PrimeSieve();
+
+    /**
+     * Gives the prime sieve consulted by {@link #isPrime(int)}, {@link
+     * #isPrime(long)} and {@link #primeFactors(int)}. It starts out covering
+     * the numbers up to {@link PrimeSieve#DEFAULT_LIMIT}, which is enough for
+     * trial division of any <code>int</code>, and can be extended to make
+     * more lookups instant, at the cost of memory (see {@link
+     * PrimeSieve#estimateMemoryFootprint(int)}).
+     * @return The shared sieve.
+     */
+    public static PrimeSieve primeSieve() {
+        return SIEVE;
+    }
+
+    /**
+     * The bound of the table returned by {@link #arithmeticFunctionTable()}.
+     */
+    private static final int TABLE_BOUND = 1 << 16;
+
+    private static final ArithmeticFunctionTable TABLE
+            = new ArithmeticFunctionTable(TABLE_BOUND);
+
+    /**
+     * Gives the table of arithmetic functions consulted by {@link
+     * #primeFactors(int)}, {@link #isSquareFree(int)}, {@link #kernel(int)}
+     * and {@link #moebiusMu(int)} for numbers up to 65536 in absolute value.
+     * This is also useful for working out those functions over a whole range
+     * of numbers at once.
+     * @return The shared table.
+     */
+    public static ArithmeticFunctionTable arithmeticFunctionTable() {
+        return TABLE;
+    }
+
+    /**
+     * Determines the prime factors of a given number. This lists out the
+     * factorization given by {@link #primeFactors(long)}, repeating each prime
+     * as many times as its exponent. Callers that don't need a list should use
+     * that function instead and avoid boxing every factor.
      * @param num The integer for which to determine prime factors of.
      * @return A list of the prime factors, with some factors repeated as
      * needed. For example, given num = 44100, the resulting list should be 2,
@@ -36,20 +88,29 @@ public class NTFC {
      * -44100, the resulting list should be -1, 2, 2, 3, 3, 5, 5, 7, 7.
      */
     public static List<Integer> primeFactors(int num) {
-        int n = num;
         List<Integer> factors = new ArrayList<>();
-        factors.add(-1);
+        if (num == 0) {
+            factors.add(0);
+            return factors;
+        }
+        if (num < 0) {
+            factors.add(-1);
+        }
+        Factorization factorization = primeFactors((long) num);
+        for (int i = 0; i < factorization.distinctPrimeCount(); i++) {
+            int prime = (int) factorization.getPrime(i);
+            for (int j = 0; j < factorization.getExponent(i); j++) {
+                factors.add(prime);
+            }
+        }
         return factors;
     }
 
-    /* (RESTORE JAVADOC ONCE CORRECTED) *
-     * Determines whether a given purely real number is prime or not. The
-     * numbers 0, &minus;1, 1, &minus;2, 2 are treated as special cases (the
-     * first three are not prime, the last two are). For all others, the
-     * function searches only for the least positive prime factor. If the least
-     * positive prime factor is found to be unequal to the absolute value of the
-     * number, the function returns false. This function is open to
-     * optimization.
+    /**
+     * Determines whether a given purely real number is prime or not. If the
+     * absolute value of the number is within the limit of {@link
+     * #primeSieve()}, this is just a lookup. Otherwise, this defers to {@link
+     * #isPrime(long)}.
      * @param num The number to be tested for primality. Examples: &minus;29,
      * 30, &minus;42, 43.
      * @return True if the number is prime (even if negative), false otherwise.
@@ -57,44 +118,338 @@ public class NTFC {
      * should all return false.
      */
     public static boolean isPrime(int num) {
-        return false;
+        if (Math.abs((long) num) <= SIEVE.getLimit()) {
+            return SIEVE.isPrime(num);
+        }
+        return isPrime((long) num);
     }
 
-    /* (RESTORE JAVADOC ONCE CORRECTED) *
-     * Determines whether a given purely real number is prime or not.
-     * @param num The number to be tested for primality.
-     * @return True if the number is prime, false otherwise.
+    /**
+     * Factors below this bound are found by trial division, factors above it
+     * by Pollard's rho method.
+     */
+    private static final int TRIAL_DIVISION_BOUND = 1024;
+
+    private static volatile FactorizationCache factorizationCache = null;
+
+    /**
+     * Sets a cache for {@link #primeFactors(long)} to consult, which also
+     * speeds up the functions that depend on it, like {@link
+     * #sortedDivisors(long)}. There is no cache unless one is set.
+     * @param cache The cache. For example, a new cache with a capacity of
+     * 10000. May be null to stop using a cache.
      */
-    public static boolean isPrime(long num) {
+    public static void setFactorizationCache(FactorizationCache cache) {
+        factorizationCache = cache;
+    }
+
+    /**
+     * Gives the cache consulted by {@link #primeFactors(long)}, if any.
+     * @return The cache set with {@link
+     * #setFactorizationCache(FactorizationCache)}, or null if none is set.
+     */
+    public static FactorizationCache getFactorizationCache() {
+        return factorizationCache;
+    }
+
+    private static volatile MappedTables mappedTables = null;
+
+    /**
+     * Sets tables mapped from a file for {@link #isPrime(long)}, {@link
+     * #primeFactors(long)}, {@link #isSquareFree(long)} and {@link
+     * #moebiusMu(int)} to look up numbers in, for numbers beyond {@link
+     * #primeSieve()} and {@link #arithmeticFunctionTable()} but within the
+     * bound of the mapped tables. The functions that depend on those, like
+     * {@link #isPrime(int)} and {@link #sortedDivisors(long)}, also benefit.
+     * There are no mapped tables unless some are set.
+     * @param tables The tables. For example, tables opened with {@link
+     * MappedTables#open(java.nio.file.Path, int)} up to 100000000. May be null
+     * to stop using mapped tables.
+     */
+    public static void setMappedTables(MappedTables tables) {
+        mappedTables = tables;
+    }
+
+    /**
+     * Gives the tables mapped from a file that are consulted by {@link
+     * #isPrime(long)} and the like, if any.
+     * @return The tables set with {@link #setMappedTables(MappedTables)}, or
+     * null if none are set.
+     */
+    public static MappedTables getMappedTables() {
+        return mappedTables;
+    }
+
+    /**
+     * Determines the prime factorization of a given number. Numbers within the
+     * bound of {@link #arithmeticFunctionTable()} are broken down with its
+     * smallest prime factors. For larger numbers, small factors are found by
+     * trial division, the rest by Pollard's rho method with Brent's
+     * improvements, with the Miller&ndash;Rabin test to tell when a factor
+     * is prime. This is quick even for numbers with two large prime factors,
+     * like 4611686014132420609 = 2147483647<sup>2</sup>. If a cache has been
+     * set with {@link #setFactorizationCache(FactorizationCache)}, numbers
+     * beyond the bound of the table are looked up there first. If tables have
+     * been set with {@link #setMappedTables(MappedTables)}, numbers within
+     * their bound are broken down with their smallest prime factors.
+     * @param num The number to factor. May be negative. For example,
+     * &minus;44100.
+     * @return The factorization, with the distinct primes and their exponents
+     * in primitive arrays. For example, &minus;1 &times; 2<sup>2</sup> &times;
+     * 3<sup>2</sup> &times; 5<sup>2</sup> &times; 7<sup>2</sup>. The
+     * factorization of 0 has no primes.
+     */
+    public static Factorization primeFactors(long num) {
+        FactorizationCache cache = factorizationCache;
+        if (cache != null && (num == Long.MIN_VALUE
+                || Math.abs(num) > TABLE.getBound())) {
+            return cache.primeFactors(num);
+        }
+        return factor(num);
+    }
+
+    /**
+     * Factors a number without consulting any cache.
+     * @param num The number to factor. For example, &minus;44100.
+     * @return The factorization.
+     */
+    static Factorization factor(long num) {
+        long[] factors = new long[Long.SIZE];
+        int count = 0;
+        MappedTables tables = mappedTables;
+        if (num != 0 && num != Long.MIN_VALUE
+                && Math.abs(num) <= TABLE.getBound()) {
+            int m = (int) Math.abs(num);
+            while (m > 1) {
+                int p = TABLE.smallestPrimeFactor(m);
+                factors[count++] = p;
+                m /= p;
+            }
+        } else if (tables != null && num != Long.MIN_VALUE
+                && Math.abs(num) <= tables.getBound()) {
+            int m = (int) Math.abs(num);
+            while (m > 1) {
+                int p = tables.smallestPrimeFactor(m);
+                factors[count++] = p;
+                m /= p;
+            }
+        } else if (num != 0) {
+            int twos = Long.numberOfTrailingZeros(num);
+            for (int i = 0; i < twos; i++) {
+                factors[count++] = 2;
+            }
+            long n = Math.abs(num >> twos);
+            for (int p = 3; p > 0 && p < TRIAL_DIVISION_BOUND && (long) p * p <= n;
+                    p = SIEVE.nextPrime(p)) {
+                while (n % p == 0) {
+                    factors[count++] = p;
+                    n /= p;
+                }
+            }
+            if (n > 1) {
+                count = splitIntoPrimes(n, factors, count);
+            }
+        }
+        return Factorization.fromRepeatedFactors(num, factors, count);
+    }
+
+    /**
+     * Splits a number without small factors into primes, recursively.
+     * @param n The number to split. Must be greater than 1 and have no prime
+     * factors less than {@link #TRIAL_DIVISION_BOUND}.
+     * @param factors Where to put the primes.
+     * @param count How many primes are already in <code>factors</code>.
+     * @return How many primes are in <code>factors</code> after adding the
+     * prime factors of <code>n</code>.
+     */
+    private static int splitIntoPrimes(long n, long[] factors, int count) {
+        if (isPrime(n)) {
+            factors[count] = n;
+            return count + 1;
+        }
+        long factor = PollardBrent.findFactor(n);
+        int newCount = splitIntoPrimes(factor, factors, count);
+        return splitIntoPrimes(n / factor, factors, newCount);
+    }
+
+    /**
+     * Witnesses for the Miller&ndash;Rabin test that together make it
+     * deterministic for all numbers below 2<sup>64</sup>. This set was found
+     * by Jim Sinclair in 2011.
+     */
+    private static final long[] MILLER_RABIN_BASES = {2L, 325L, 9375L, 28178L,
+        450775L, 9780504L, 1795265022L};
+
+    /**
+     * Witnesses for the Miller&ndash;Rabin test that suffice for numbers below
+     * {@link #MILLER_RABIN_SMALL_BOUND}, per Jaeschke.
+     */
+    private static final long[] MILLER_RABIN_SMALL_BASES = {2L, 7L, 61L};
+
+    private static final long MILLER_RABIN_SMALL_BOUND = 4759123141L;
+
+    /**
+     * Small odd primes to try dividing by before going to Miller&ndash;Rabin,
+     * since that's much quicker for the many numbers that have a small factor.
+     */
+    private static final int[] SMALL_ODD_PRIMES = {3, 5, 7, 11, 13, 17, 19, 23,
+        29, 31, 37, 41, 43, 47, 53, 59, 61, 67, 71, 73, 79, 83, 89, 97};
+
+    /**
+     * The Miller&ndash;Rabin strong probable prime test with the bases in
+     * {@link #MILLER_RABIN_BASES}, or {@link #MILLER_RABIN_SMALL_BASES} for
+     * small enough numbers, which makes it deterministic.
+     * @param n The number to test. Must be odd and greater than 1.
+     * @return True if the number is prime, false if it's composite.
+     */
+    static boolean millerRabin(long n) {
+        Montgomery mont = new Montgomery(n);
+        long oneMont = mont.one();
+        long minusOneMont = mont.minusOne();
+        long d = n - 1;
+        int s = Long.numberOfTrailingZeros(d);
+        d >>= s;
+        long[] bases = n < MILLER_RABIN_SMALL_BOUND ? MILLER_RABIN_SMALL_BASES
+                : MILLER_RABIN_BASES;
+        for (long base : bases) {
+            long a = base % n;
+            if (a == 0) {
+                continue;
+            }
+            long x = mont.pow(mont.toMontgomery(a), d);
+            if (x == oneMont || x == minusOneMont) {
+                continue;
+            }
+            boolean witnessed = true;
+            for (int r = 1; r < s && witnessed; r++) {
+                x = mont.multiply(x, x);
+                witnessed = (x != minusOneMont);
+            }
+            if (witnessed) {
+                return false;
+            }
+        }
         return true;
     }
 
-    /* (RESTORE JAVADOC ONCE CORRECTED) *
+    /**
+     * Determines whether a given purely real number is prime or not. If the
+     * absolute value of the number is within the limit of {@link
+     * #primeSieve()}, or within the bound of tables set with {@link
+     * #setMappedTables(MappedTables)}, this is just a lookup. Otherwise, after
+     * checking for a few small factors, this uses the Miller&ndash;Rabin test
+     * with a set of bases known to give the right answer for every
+     * <code>long</code>.
+     * @param num The number to be tested for primality. For example,
+     * 2147483659.
+     * @return True if the number is prime (even if negative), false otherwise.
+     * For example, true for 2147483659 and false for 2147483648.
+     */
+    public static boolean isPrime(long num) {
+        if (num == Long.MIN_VALUE) {
+            return false;
+        }
+        long n = Math.abs(num);
+        if (n <= SIEVE.getLimit()) {
+            return SIEVE.isPrime((int) n);
+        }
+        MappedTables tables = mappedTables;
+        if (tables != null && n <= tables.getBound()) {
+            return tables.isPrime((int) n);
+        }
+        if ((n & 1) == 0) {
+            return false;
+        }
+        for (int p : SMALL_ODD_PRIMES) {
+            if (n % p == 0) {
+                return false;
+            }
+        }
+        return millerRabin(n);
+    }
+
+    /**
      * The Legendre symbol, a number theoretic function which tells if a given
-     * number is a quadratic residue modulo an odd prime. There is no overflow
-     * checking, but hopefully that's only a problem for numbers that are very
-     * close to {@link Integer#MIN_VALUE} or {@link Integer#MAX_VALUE}.
+     * number is a quadratic residue modulo an odd prime. Once the modulus is
+     * checked to be an odd prime, this is the same as {@link
+     * #symbolJacobi(long, long)}.
      * @param a The number to test for being a quadratic residue modulo an odd
      * prime. For example, 10.
      * @param p The odd prime to test a for being a quadratic residue modulo of.
      * For example, 7. This parameter may be negative; the function will quietly
      * change it to a positive number; this behavior is not guaranteed for
      * future versions of this program.
-     * @return &minus;1 if a is quadratic residue modulo p, 0 if gcd(a, p) > 1, 1 if a
-     * is a quadratic residue modulo p. An example of each: Legendre(10, 7) = &minus;1
-     * since there are no solutions to <i>x</i><sup>2</sup> = 10 mod 7; Legendre(10, 5) = 0 since
-     * 10 is a multiple of 5; and Legendre(10, 3) = 1 since <i>x</i><sup>2</sup> = 10 mod 3 does
-     * have solutions, such as <i>x</i> = 4.
+     * @return &minus;1 if a is not a quadratic residue modulo p, 0 if gcd(a, p)
+     * &gt; 1, 1 if a is a quadratic residue modulo p. An example of each:
+     * Legendre(10, 7) = &minus;1 since there are no solutions to
+     * <i>x</i><sup>2</sup> = 10 mod 7; Legendre(10, 5) = 0 since 10 is a
+     * multiple of 5; and Legendre(10, 3) = 1 since <i>x</i><sup>2</sup> = 10
+     * mod 3 does have solutions, such as <i>x</i> = 4.
      * @throws IllegalArgumentException If p is not an odd prime. Note that this
      * is a runtime exception.
      */
     public static byte symbolLegendre(int a, int p) {
-        return -2;
+        return symbolLegendre((long) a, (long) p);
+    }
+
+    /**
+     * The Legendre symbol, a number theoretic function which tells if a given
+     * number is a quadratic residue modulo an odd prime. Once the modulus is
+     * checked to be an odd prime, this is the same as {@link
+     * #symbolJacobi(long, long)}.
+     * @param a The number to test for being a quadratic residue modulo an odd
+     * prime. For example, 10.
+     * @param p The odd prime to test a for being a quadratic residue modulo of.
+     * For example, 1000000007. May be negative, in which case its absolute
+     * value is used.
+     * @return &minus;1 if a is not a quadratic residue modulo p, 0 if gcd(a, p)
+     * &gt; 1, 1 if a is a quadratic residue modulo p.
+     * @throws IllegalArgumentException If p is not an odd prime.
+     */
+    public static byte symbolLegendre(long a, long p) {
+        if ((p & 1) == 0 || !isPrime(p)) {
+            throw new IllegalArgumentException("Legendre symbol needs an odd "
+                    + "prime modulus, not " + p);
+        }
+        return jacobi(a, Math.abs(p));
+    }
+
+    /**
+     * The Jacobi symbol of a number and an odd positive modulus, by the binary
+     * algorithm. Factors of 2 are shifted out of the top, with the second
+     * supplementary law giving the sign; then quadratic reciprocity swaps top
+     * and bottom when the top is smaller, and the bottom is subtracted from
+     * the top. There are no divisions after the first reduction, and the
+     * modulus is never factored.
+     */
+    private static byte jacobi(long n, long m) {
+        long a = Math.floorMod(n, m);
+        long b = m;
+        byte result = 1;
+        while (a != 0) {
+            int twos = Long.numberOfTrailingZeros(a);
+            a >>= twos;
+            long bMod8 = b & 7;
+            if ((twos & 1) != 0 && (bMod8 == 3 || bMod8 == 5)) {
+                result = (byte) -result;
+            }
+            if (a < b) {
+                long swap = a;
+                a = b;
+                b = swap;
+                if ((a & b & 3) == 3) {
+                    result = (byte) -result;
+                }
+            }
+            a -= b;
+        }
+        return b == 1 ? result : 0;
     }
 
-    /* (RESTORE JAVADOC ONCE CORRECTED) *
-     * The Jacobi symbol, a number theoretic function. This implementation is
-     * almost entirely dependent on the Legendre symbol.
+    /**
+     * The Jacobi symbol, a number theoretic function. This is the product of
+     * the Legendre symbols for the prime factors of m, but it is computed with
+     * the binary algorithm, by quadratic reciprocity, without factoring m.
      * @param n Parameter n, for example, 8.
      * @param m Parameter m, for example, 15.
      * @return The result, for example, 1.
@@ -102,54 +457,114 @@ public class NTFC {
      * that this is a runtime exception.
      */
     public static byte symbolJacobi(int n, int m) {
-        return -5;
+        return symbolJacobi((long) n, (long) m);
     }
 
-    private static byte symbolKroneckerNegOne(int n) {
-        if (n < 0) {
-            return -1;
-        } else {
-            return 1;
-        }
-    }
-
-    private static byte symbolKroneckerTwo(int n) {
-        int nMod8 = n % 8;
-        switch (nMod8) {
-            case -7:
-            case -1:
-            case 1:
-            case 7:
-                return 1;
-            case -5:
-            case -3:
-            case 3:
-            case 5:
-                return -1;
-            default:
-                return 0;
+    /**
+     * The Jacobi symbol, a number theoretic function. This is the product of
+     * the Legendre symbols for the prime factors of m, but it is computed with
+     * the binary algorithm, by quadratic reciprocity, without factoring m.
+     * @param n Parameter n, for example, &minus;1000000008.
+     * @param m Parameter m, for example, 998244359987710471.
+     * @return The result, for example, &minus;1.
+     * @throws IllegalArgumentException If m is even or negative (or both).
+     */
+    public static byte symbolJacobi(long n, long m) {
+        if (m < 0 || (m & 1) == 0) {
+            throw new IllegalArgumentException("Jacobi symbol needs an odd "
+                    + "positive modulus, not " + m);
         }
+        return jacobi(n, m);
     }
 
-    /* (RESTORE JAVADOC ONCE CORRECTED) *
-     * The Kronecker symbol, a number theoretic function. This implementation
-     * relies in great part on the Legendre symbol, but not at all on the Jacobi
-     * symbol.
+    /**
+     * The Kronecker symbol, a number theoretic function. This extends the
+     * Jacobi symbol to all m, with the factors of 2 and the sign of m handled
+     * separately before the binary algorithm takes over.
      * @param n Parameter n, for example, 3.
      * @param m Parameter m, for example, 2.
      * @return The result, for example, &minus;1.
      */
     public static byte symbolKronecker(int n, int m) {
-        return (byte) (symbolKroneckerNegOne(n) + symbolKroneckerTwo(m));
+        return symbolKronecker((long) n, (long) m);
+    }
+
+    /**
+     * The Kronecker symbol, a number theoretic function. This extends the
+     * Jacobi symbol to all m: (n|2) is 0 if n is even, 1 if n = &plusmn;1 mod
+     * 8 and &minus;1 if n = &plusmn;3 mod 8; (n|&minus;1) is &minus;1 if n is
+     * negative and 1 otherwise; and (n|0) is 1 if n = &plusmn;1 and 0
+     * otherwise.
+     * @param n Parameter n, for example, &minus;163.
+     * @param m Parameter m, for example, &minus;8589934592.
+     * @return The result, for example, 1.
+     */
+    public static byte symbolKronecker(long n, long m) {
+        if (m == 0) {
+            return (byte) (n == 1 || n == -1 ? 1 : 0);
+        }
+        byte result = 1;
+        int twos = Long.numberOfTrailingZeros(m);
+        if (twos > 0) {
+            if ((n & 1) == 0) {
+                return 0;
+            }
+            long nMod8 = n & 7;
+            if ((twos & 1) != 0 && (nMod8 == 3 || nMod8 == 5)) {
+                result = -1;
+            }
+        }
+        long odd = m >> twos;
+        if (odd < 0) {
+            odd = -odd;
+            if (n < 0) {
+                result = (byte) -result;
+            }
+        }
+        return (byte) (result * jacobi(n, odd));
+    }
+
+    /**
+     * The product of the squares of 2, 3, 5 and 7.
+     */
+    private static final int SMALL_SQUARES_MODULUS = 4 * 9 * 25 * 49;
+
+    /**
+     * Bit <i>r</i> is on if <i>r</i> is divisible by 4, 9, 25 or 49, so that
+     * a single remainder tells whether a number has any of those squares as
+     * a factor.
+     */
+    private static final long[] SMALL_SQUARES_RESIDUES
+            = new long[(SMALL_SQUARES_MODULUS + 63) >> 6];
+
+    static {
+        for (int square : new int[]{4, 9, 25, 49}) {
+            for (int r = 0; r < SMALL_SQUARES_MODULUS; r += square) {
+                SMALL_SQUARES_RESIDUES[r >> 6] |= 1L << r;
+            }
+        }
+    }
+
+    /**
+     * Tells whether a number greater than 0 is a perfect square.
+     */
+    private static boolean isPerfectSquare(long n) {
+        long root = (long) Math.sqrt((double) n);
+        while (root * root > n) {
+            root--;
+        }
+        while ((root + 1) * (root + 1) <= n) {
+            root++;
+        }
+        return root * root == n;
     }
 
-    /* (RESTORE JAVADOC ONCE CORRECTED) *
+    /**
      * Determines whether a given number is squarefree or not. The original
      * implementation depended on {@link #primeFactors(int) primeFactors(int)}.
-     * For version 0.95, this was optimized to try the number modulo 4, and if
-     * it's not divisible by 4, to try dividing it by odd squares. Although this
-     * includes odd squares like 9 and 81, it still makes for a performance
-     * improvement over relying on primeFactors(int).
+     * Now, if the absolute value of the number is within the bound of {@link
+     * #arithmeticFunctionTable()}, this is just a lookup. Otherwise, this
+     * defers to {@link #isSquareFree(long)}.
      * @param num The number to be tested for being squarefree.
      * @return True if the number is squarefree, false otherwise. For example,
      * &minus;3 and 7 should each return true, &minus;4, 0 and 25 should each
@@ -157,13 +572,213 @@ public class NTFC {
      * num = 1, this function should return true.
      */
     public static boolean isSquareFree(int num) {
-        return true;
+        long n = Math.abs((long) num);
+        if (n <= TABLE.getBound()) {
+            return TABLE.isSquareFree((int) n);
+        }
+        return isSquareFree(n);
+    }
+
+    /**
+     * Determines whether a given number is squarefree or not. Numbers within
+     * the bound of {@link #arithmeticFunctionTable()}, or of tables set with
+     * {@link #setMappedTables(MappedTables)}, are looked up. For other
+     * numbers, divisibility by 4, 9, 25 and 49 is ruled out with one remainder
+     * and a bitmask lookup. Then the number is divided by the primes from 11
+     * up to its cube root, checking for a repeated factor each time a prime
+     * divides it. Whatever is left over has at most two prime factors, so
+     * it's squarefree unless it's a perfect square. If the cube root is beyond
+     * the bound for trial division used by {@link #primeFactors(long)}, what's
+     * left over is factored instead.
+     * @param num The number to be tested for being squarefree. For example,
+     * 4611686014132420609.
+     * @return True if the number is squarefree, false otherwise. For example,
+     * false, since 4611686014132420609 = 2147483647<sup>2</sup>. As with
+     * {@link #isSquareFree(int)}, 0 is not squarefree but 1 and &minus;1 are.
+     */
+    public static boolean isSquareFree(long num) {
+        if (num == 0 || num == Long.MIN_VALUE) {
+            return false;
+        }
+        long n = Math.abs(num);
+        if (n <= TABLE.getBound()) {
+            return TABLE.isSquareFree((int) n);
+        }
+        MappedTables tables = mappedTables;
+        if (tables != null && n <= tables.getBound()) {
+            return tables.isSquareFree((int) n);
+        }
+        int r = (int) (n % SMALL_SQUARES_MODULUS);
+        if ((SMALL_SQUARES_RESIDUES[r >> 6] & (1L << r)) != 0) {
+            return false;
+        }
+        for (int p = 2; p < 11; p = SIEVE.nextPrime(p)) {
+            if (n % p == 0) {
+                n /= p;
+            }
+        }
+        for (int p = 11; (long) p * p * p <= n; p = SIEVE.nextPrime(p)) {
+            if (p > TRIAL_DIVISION_BOUND) {
+                return primeFactors(n).isSquareFree();
+            }
+            if (n % p == 0) {
+                n /= p;
+                if (n % p == 0) {
+                    return false;
+                }
+            }
+        }
+        return n == 1 || !isPerfectSquare(n);
+    }
+
+    /**
+     * How many numbers {@link #squareFreeBitmap(long, long)} sieves at a
+     * time. This is 2<sup>18</sup> bits, or 32 kilobytes.
+     */
+    private static final int SQUAREFREE_SEGMENT_BITS = 1 << 18;
+
+    /**
+     * The largest square of an <code>int</code>, which is as far as {@link
+     * #squareFreeBitmap(long, long)} can go with the primes from a {@link
+     * PrimeSieve}.
+     */
+    private static final long SQUAREFREE_BITMAP_LIMIT
+            = (long) Integer.MAX_VALUE * Integer.MAX_VALUE;
+
+    /**
+     * Determines which numbers in an interval are squarefree, all at once.
+     * Every bit starts out on, then, for each prime <i>p</i> up to the square
+     * root of the end of the interval, the bits of the multiples of
+     * <i>p</i><sup>2</sup> are turned off. This is done 32 kilobytes at a time,
+     * so that the part of the bitmap being worked on fits in the processor's
+     * cache no matter how long the interval is. Each segment only goes
+     * through the primes up to the square root of its own end, so the
+     * segments near 0 are quick. The primes come from {@link
+     * #primeSieve()} if it goes far enough, from a temporary sieve otherwise.
+     * @param from The start of the interval, inclusive. Must not be negative.
+     * For example, 100.
+     * @param to The end of the interval, exclusive. For example, 110.
+     * @return A bitmap in which bit <i>i</i> is on if <code>from</code> +
+     * <i>i</i> is squarefree. For example, bits 1, 2, 3, 5, 6, 7 and 9 on,
+     * for 101, 102, 103, 105, 106, 107 and 109.
+     * @throws IllegalArgumentException If <code>from</code> is negative, if
+     * <code>to</code> is less than <code>from</code>, if the interval has
+     * more than {@link Integer#MAX_VALUE} numbers, or if the interval goes
+     * past 4611686014132420609, the square of {@link Integer#MAX_VALUE}.
+     */
+    public static BitSet squareFreeBitmap(long from, long to) {
+        if (from < 0 || to < from || to - from > Integer.MAX_VALUE
+                || to - 1 > SQUAREFREE_BITMAP_LIMIT) {
+            throw new IllegalArgumentException("Interval from " + from
+                    + " to " + to + " is not valid for a bitmap");
+        }
+        int length = (int) (to - from);
+        if (length == 0) {
+            return new BitSet();
+        }
+        long[] words = new long[(int) (((long) length + 63) >> 6)];
+        Arrays.fill(words, -1L);
+        words[words.length - 1] = -1L >>> (-length & 63);
+        if (from == 0) {
+            words[0] &= ~1L; // 0 is not squarefree
+        }
+        int root = (int) Math.min(Integer.MAX_VALUE,
+                (long) Math.sqrt((double) (to - 1)));
+        while ((long) root * root > to - 1) {
+            root--;
+        }
+        PrimeSieve sieve = root <= SIEVE.getLimit() ? SIEVE
+                : new PrimeSieve(root);
+        for (long segStart = 0; segStart < length;
+                segStart += SQUAREFREE_SEGMENT_BITS) {
+            long segEnd = Math.min(segStart + SQUAREFREE_SEGMENT_BITS, length);
+            long lowNumber = from + segStart;
+            long highNumber = from + segEnd - 1;
+            for (int p = 2; p > 0 && p <= root; p = sieve.nextPrime(p)) {
+                long square = (long) p * p;
+                if (square > highNumber) {
+                    break;
+                }
+                long firstMultiple = lowNumber
+                        + Math.floorMod(-lowNumber, square);
+                for (long i = firstMultiple - from; i < segEnd; i += square) {
+                    words[(int) (i >> 6)] &= ~(1L << i);
+                }
+            }
+        }
+        return BitSet.valueOf(words);
     }
 
-    /* (RESTORE JAVADOC ONCE CORRECTED) *
-     * Gives the squarefree kernel of an integer. The current implementation
-     * works by obtaining the prime factorization of the number, deleting
-     * duplicate factors and then multiplying the factors that remain.
+    /**
+     * Lists the primes in an interval, sieving it in parallel in the common
+     * {@link ForkJoinPool}. See {@link #primesInRange(long, long,
+     * ForkJoinPool)} for details.
+     * @param from The start of the interval, inclusive. Must not be negative.
+     * For example, 100.
+     * @param to The end of the interval, exclusive. For example, 130.
+     * @return The primes in the interval, in ascending order. For example,
+     * 101, 103, 107, 109, 113, 127.
+     * @throws IllegalArgumentException If <code>from</code> is negative, if
+     * <code>to</code> is less than <code>from</code>, if the interval goes
+     * past 4611686014132420609, the square of {@link Integer#MAX_VALUE}, or
+     * if there are too many primes in the interval for an array.
+     */
+    public static long[] primesInRange(long from, long to) {
+        return primesInRange(from, to, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Lists the primes in an interval, sieving it in parallel in a given pool.
+     * The interval is split into segments of 2<sup>18</sup> odd numbers, which
+     * fit in 32 kilobytes of the processor's cache, and the segments are
+     * sieved as separate tasks. The primes up to the square root of the end of
+     * the interval are listed once beforehand, from {@link #primeSieve()} if
+     * it goes far enough, from a temporary sieve otherwise, and all the tasks
+     * read from that same list.
+     * @param from The start of the interval, inclusive. Must not be negative.
+     * For example, 1000000000000.
+     * @param to The end of the interval, exclusive. For example,
+     * 1000000000100.
+     * @param pool The pool to run the tasks in. Its parallelism determines how
+     * many segments are sieved at once.
+     * @return The primes in the interval, in ascending order. For example,
+     * 1000000000039 and 1000000000061.
+     * @throws IllegalArgumentException If <code>from</code> is negative, if
+     * <code>to</code> is less than <code>from</code>, if the interval goes
+     * past 4611686014132420609, the square of {@link Integer#MAX_VALUE}, or
+     * if there might be too many primes in the interval for an array. This
+     * last check uses an upper bound for the number of primes, so that such
+     * an interval is rejected before any sieving is done. Since the bound is
+     * not exact, an interval with a little fewer primes than would fit might
+     * also be rejected.
+     */
+    public static long[] primesInRange(long from, long to, ForkJoinPool pool) {
+        if (from < 0 || to < from || to - 1 > SQUAREFREE_BITMAP_LIMIT) {
+            throw new IllegalArgumentException("Interval from " + from
+                    + " to " + to + " is not valid for listing primes");
+        }
+        long primeCountBound = RangeSieve.primeCountBound(from, to);
+        if (primeCountBound > RangeSieve.MAX_PRIMES) {
+            throw new IllegalArgumentException("Interval from " + from
+                    + " to " + to + " may have as many as " + primeCountBound
+                    + " primes, too many for an array");
+        }
+        int root = (int) Math.min(Integer.MAX_VALUE,
+                (long) Math.sqrt((double) Math.max(to - 1, 0)));
+        while ((long) root * root > to - 1) {
+            root--;
+        }
+        PrimeSieve sieve = root <= SIEVE.getLimit() ? SIEVE
+                : new PrimeSieve(root);
+        RangeSieve rangeSieve = new RangeSieve(from, to, sieve.oddPrimes(root));
+        return rangeSieve.run(pool, from <= 2 && 2 < to);
+    }
+
+    /**
+     * Gives the squarefree kernel of an integer. If the absolute value of the
+     * number is within the bound of {@link #arithmeticFunctionTable()}, this
+     * is just a lookup. Otherwise, this multiplies the distinct primes in the
+     * prime factorization.
      * @param num The number for which to find the squarefree kernel of. May be
      * negative. For example, &minus;392.
      * @return The squarefree kernel of the given number. Should be positive for
@@ -172,32 +787,64 @@ public class NTFC {
      * input of 0, but this is not guaranteed for future implementations.
      */
     public static int kernel(int num) {
-        return -1;
+        long n = Math.abs((long) num);
+        int sign = Integer.signum(num);
+        if (n <= TABLE.getBound()) {
+            return sign * TABLE.radical((int) n);
+        }
+        return sign * (int) primeFactors(n).radical();
+    }
+
+    /**
+     * Lists the positive divisors of a number. They are generated from the
+     * prime factorization, as all the products of prime powers, so the time
+     * taken depends on how many divisors there are rather than on the size of
+     * the number.
+     * @param num The number to list the divisors of. May be negative, in which
+     * case the divisors listed are still positive. For example, &minus;12.
+     * @return The positive divisors in ascending order. For example, 1, 2, 3,
+     * 4, 6, 12. For 0, which is divisible by every nonzero number, the array
+     * is empty.
+     * @throws IllegalArgumentException If <code>num</code> is {@link
+     * Long#MIN_VALUE}, since 2<sup>63</sup> is one of its divisors but is
+     * outside the range of <code>long</code>.
+     */
+    public static long[] sortedDivisors(long num) {
+        if (num == Long.MIN_VALUE) {
+            throw new IllegalArgumentException("Divisor 2^63 of " + num
+                    + " is outside the range of long");
+        }
+        if (num == 0) {
+            return new long[0];
+        }
+        return primeFactors(num).divisors();
     }
 
+    /**
+     * Lists the positive divisors of a number. This is the same as {@link
+     * #sortedDivisors(long)}, but boxed in a list.
+     * @param num The number to list the divisors of. May be negative, in which
+     * case the divisors listed are still positive. For example, 12.
+     * @return The positive divisors in ascending order. For example, 1, 2, 3,
+     * 4, 6, 12. For 0, the list is empty.
+     * @throws IllegalArgumentException If <code>num</code> is {@link
+     * Long#MIN_VALUE}.
+     */
     public static ArrayList<Long> divisors(long num) {
-        long n = Math.abs(num);
-        HashSet<Long> divSet = new HashSet<>();
-        divSet.add(1L);
-        divSet.add(n);
-        double squareRoot = Math.sqrt(n);
-        long currD = 2L;
-        long corrD;
-        while (currD <= squareRoot) {
-            if (n % currD == 0) {
-                divSet.add(currD);
-                corrD = n / currD;
-                divSet.add(corrD);
-            }
-            currD++;
-        }
-        ArrayList<Long> divList = new ArrayList<>(divSet);
-        Collections.sort(divList);
+        long[] divs = sortedDivisors(num);
+        ArrayList<Long> divList = new ArrayList<>(divs.length);
+        for (long d : divs) {
+            divList.add(d);
+        }
         return divList;
     }
 
-    /* (RESTORE JAVADOC ONCE CORRECTED) *
-     * Computes the M&ouml;bius function &mu; for a given integer.
+    /**
+     * Computes the M&ouml;bius function &mu; for a given integer. If the
+     * absolute value of the number is within the bound of {@link
+     * #arithmeticFunctionTable()}, or of tables set with {@link
+     * #setMappedTables(MappedTables)}, this is just a lookup. Otherwise, it's
+     * worked out from the prime factorization.
      * @param num The integer for which to compute the M&ouml;bius function.
      * @return 1 if num is squarefree with an even number of prime factors,
      * &minus;1 if num is squarefree with an odd number of prime factors, 0 if
@@ -206,7 +853,15 @@ public class NTFC {
      * &mu;(32) = 0 and &mu;(33) = 1.
      */
     public static byte moebiusMu(int num) {
-        return (byte) (-3 * num);
+        long n = Math.abs((long) num);
+        if (n <= TABLE.getBound()) {
+            return TABLE.moebiusMu((int) n);
+        }
+        MappedTables tables = mappedTables;
+        if (tables != null && n <= tables.getBound()) {
+            return tables.moebiusMu((int) n);
+        }
+        return primeFactors(n).moebius();
     }
 
     /**
@@ -275,15 +930,433 @@ public class NTFC {
     }
 
     /**
-     * Provides a pseudorandom positive squarefree integer.
+     * Computes the greatest common divisor (GCD) of two purely real integers by
+     * using the binary GCD algorithm of Stein. Instead of dividing, this
+     * shifts out factors of 2 and subtracts, which is quicker than the
+     * Euclidean algorithm on processors where division is slow.
+     * @param a One of the two integers. May be negative, need not be greater
+     * than the other.
+     * @param b One of the two integers. May be negative, need not be smaller
+     * than the other.
+     * @return The GCD as an integer. Same as {@link #euclideanGCD(int, int)},
+     * including when either a or b is 0.
+     */
+    public static int binaryGCD(int a, int b) {
+        // Integer.MIN_VALUE stays negative, but as unsigned it's 2^31
+        int u = Math.abs(a);
+        int v = Math.abs(b);
+        if (u == 0) {
+            return v;
+        }
+        if (v == 0) {
+            return u;
+        }
+        int shift = Integer.numberOfTrailingZeros(u | v);
+        u >>>= Integer.numberOfTrailingZeros(u);
+        do {
+            v >>>= Integer.numberOfTrailingZeros(v);
+            if (u > v) {
+                int swap = u;
+                u = v;
+                v = swap;
+            }
+            v -= u;
+        } while (v != 0);
+        return u << shift;
+    }
+
+    /**
+     * Computes the greatest common divisor (GCD) of two purely real integers by
+     * using the binary GCD algorithm of Stein. Instead of dividing, this
+     * shifts out factors of 2 and subtracts, which is quicker than the
+     * Euclidean algorithm on processors where division is slow. This is the
+     * GCD used to put fractions in lowest terms.
+     * @param a One of the two integers. May be negative, need not be greater
+     * than the other.
+     * @param b One of the two integers. May be negative, need not be smaller
+     * than the other.
+     * @return The GCD as an integer. Same as {@link #euclideanGCD(long,
+     * long)}, including when either a or b is 0.
+     */
+    public static long binaryGCD(long a, long b) {
+        // Long.MIN_VALUE stays negative, but as unsigned it's 2^63
+        long u = Math.abs(a);
+        long v = Math.abs(b);
+        if (u == 0) {
+            return v;
+        }
+        if (v == 0) {
+            return u;
+        }
+        int shift = Long.numberOfTrailingZeros(u | v);
+        u >>>= Long.numberOfTrailingZeros(u);
+        do {
+            v >>>= Long.numberOfTrailingZeros(v);
+            if (u > v) {
+                long swap = u;
+                u = v;
+                v = swap;
+            }
+            v -= u;
+        } while (v != 0);
+        return u << shift;
+    }
+
+    /**
+     * Computes the greatest common divisor (GCD) of two purely real integers by
+     * using Lehmer's variant of the Euclidean algorithm. While both numbers
+     * are too large for an <code>int</code>, several steps of the Euclidean
+     * algorithm are simulated on their leading 32 bits only, and then applied
+     * to the full numbers all at once. Once the numbers are small enough, this
+     * finishes with {@link #binaryGCD(long, long)}.
+     * @param a One of the two integers. May be negative, need not be greater
+     * than the other.
+     * @param b One of the two integers. May be negative, need not be smaller
+     * than the other.
+     * @return The GCD as an integer. Same as {@link #euclideanGCD(long,
+     * long)}, including when either a or b is 0.
+     */
+    public static long lehmerGCD(long a, long b) {
+        if (a == Long.MIN_VALUE || b == Long.MIN_VALUE) {
+            return binaryGCD(a, b);
+        }
+        long u = Math.abs(a);
+        long v = Math.abs(b);
+        if (u < v) {
+            long swap = u;
+            u = v;
+            v = swap;
+        }
+        while (v > Integer.MAX_VALUE) {
+            int shift = 32 - Long.numberOfLeadingZeros(u);
+            long uHat = u >>> shift;
+            long vHat = v >>> shift;
+            long coeffA = 1, coeffB = 0, coeffC = 0, coeffD = 1;
+            // Knuth's Algorithm L: stop as soon as the quotient is in doubt
+            while (vHat + coeffC != 0 && vHat + coeffD != 0) {
+                long quotient = (uHat + coeffA) / (vHat + coeffC);
+                if (quotient != (uHat + coeffB) / (vHat + coeffD)) {
+                    break;
+                }
+                long temp = coeffA - quotient * coeffC;
+                coeffA = coeffC;
+                coeffC = temp;
+                temp = coeffB - quotient * coeffD;
+                coeffB = coeffD;
+                coeffD = temp;
+                temp = uHat - quotient * vHat;
+                uHat = vHat;
+                vHat = temp;
+            }
+            if (coeffB == 0) {
+                long remainder = u % v;
+                u = v;
+                v = remainder;
+            } else {
+                // The products may wrap around, but the results are exact
+                long nextU = coeffA * u + coeffB * v;
+                v = coeffC * u + coeffD * v;
+                u = nextU;
+            }
+        }
+        return binaryGCD(u, v);
+    }
+
+    private static void checkRange(long[] numbers, int fromIndex,
+            int toIndex) {
+        if (fromIndex < 0 || toIndex > numbers.length || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Range " + fromIndex + " to "
+                    + toIndex + " is out of bounds for length "
+                    + numbers.length);
+        }
+    }
+
+    /**
+     * Computes the greatest common divisor (GCD) of an array of integers.
+     * @param numbers The integers. May be negative. For example, 84, &minus;90,
+     * 126.
+     * @return The GCD, which is the same as applying {@link #binaryGCD(long,
+     * long)} to the numbers one after the other. For example, 6. The GCD of an
+     * empty array is 0.
+     */
+    public static long gcd(long[] numbers) {
+        return gcd(numbers, 0, numbers.length);
+    }
+
+    /**
+     * Computes the greatest common divisor (GCD) of part of an array of
+     * integers. This stops early once the running GCD gets down to 1.
+     * @param numbers The array. For example, 1, 84, &minus;90, 126.
+     * @param fromIndex Where to start, inclusive. For example, 1.
+     * @param toIndex Where to stop, exclusive. For example, 4.
+     * @return The GCD. For example, 6. The GCD of an empty range is 0.
+     * @throws IndexOutOfBoundsException If <code>fromIndex</code> is negative,
+     * if <code>toIndex</code> is greater than the length of the array, or if
+     * <code>fromIndex</code> is greater than <code>toIndex</code>.
+     */
+    public static long gcd(long[] numbers, int fromIndex, int toIndex) {
+        checkRange(numbers, fromIndex, toIndex);
+        long result = 0;
+        for (int i = fromIndex; i < toIndex && result != 1; i++) {
+            result = binaryGCD(result, numbers[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the least common multiple (LCM) of an array of integers. This
+     * is the least common denominator of fractions with those denominators.
+     * @param numbers The integers. May be negative. For example, 2, 3, 4.
+     * @return The LCM, which is never negative. For example, 12. If any of
+     * the numbers is 0, the LCM is 0. The LCM of an empty array is 1.
+     * @throws ArithmeticException If the LCM is too large for a
+     * <code>long</code>.
+     */
+    public static long lcm(long[] numbers) {
+        return lcm(numbers, 0, numbers.length);
+    }
+
+    /**
+     * Computes the least common multiple (LCM) of part of an array of
+     * integers.
+     * @param numbers The array. For example, 7, 2, 3, 4.
+     * @param fromIndex Where to start, inclusive. For example, 1.
+     * @param toIndex Where to stop, exclusive. For example, 4.
+     * @return The LCM, which is never negative. For example, 12. If any of
+     * the numbers in the range is 0, the LCM is 0. The LCM of an empty range
+     * is 1.
+     * @throws ArithmeticException If the LCM is too large for a
+     * <code>long</code>.
+     * @throws IndexOutOfBoundsException If <code>fromIndex</code> is negative,
+     * if <code>toIndex</code> is greater than the length of the array, or if
+     * <code>fromIndex</code> is greater than <code>toIndex</code>.
+     */
+    public static long lcm(long[] numbers, int fromIndex, int toIndex) {
+        checkRange(numbers, fromIndex, toIndex);
+        long result = 1;
+        for (int i = fromIndex; i < toIndex; i++) {
+            long number = numbers[i];
+            if (number == 0) {
+                return 0;
+            }
+            if (number == Long.MIN_VALUE) {
+                throw new ArithmeticException("LCM with " + number
+                        + " is too large for a long");
+            }
+            number = Math.abs(number);
+            long gcd = binaryGCD(result, number);
+            try {
+                result = Math.multiplyExact(result, number / gcd);
+            } catch (ArithmeticException ae) {
+                throw new ArithmeticException("LCM with " + number
+                        + " is too large for a long");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds, for each of several integers, the factors it shares with all the
+     * others put together. This is Bernstein's batch GCD: a product tree
+     * gives the product <i>P</i> of all the numbers, then a remainder tree
+     * gives <i>P</i> mod <i>x</i><sup>2</sup> for each number <i>x</i>, from
+     * which gcd(<i>x</i>, <i>P</i>/<i>x</i>) follows. That takes far fewer
+     * operations than computing the GCD of every pair of numbers, though the
+     * products near the root of the tree need <code>BigInteger</code>.
+     * @param numbers The integers. May be negative but not 0. For example, 15,
+     * 7, 22, 39.
+     * @return A new array with, at each position, the GCD of the number at
+     * that position with the product of all the other numbers. For example,
+     * 3, 1, 1, 3, since 15 and 39 share 3, but 7 and 22 share nothing with the
+     * others. A 1 means the number is coprime to all the others.
+     * @throws IllegalArgumentException If any of the numbers is 0.
+     */
+    public static long[] batchGCD(long[] numbers) {
+        int count = numbers.length;
+        if (count == 0) {
+            return new long[0];
+        }
+        List<BigInteger[]> levels = new ArrayList<>();
+        BigInteger[] level = new BigInteger[count];
+        for (int i = 0; i < count; i++) {
+            if (numbers[i] == 0) {
+                throw new IllegalArgumentException("Batch GCD with 0 at index "
+                        + i + " is not allowed");
+            }
+            level[i] = BigInteger.valueOf(numbers[i]).abs();
+        }
+        levels.add(level);
+        while (level.length > 1) {
+            BigInteger[] parents = new BigInteger[(level.length + 1) / 2];
+            for (int i = 0; i < parents.length; i++) {
+                int left = 2 * i;
+                parents[i] = left + 1 < level.length
+                        ? level[left].multiply(level[left + 1]) : level[left];
+            }
+            levels.add(parents);
+            level = parents;
+        }
+        BigInteger[] remainders = level;
+        for (int depth = levels.size() - 2; depth >= 0; depth--) {
+            BigInteger[] children = levels.get(depth);
+            BigInteger[] childRemainders = new BigInteger[children.length];
+            for (int i = 0; i < children.length; i++) {
+                childRemainders[i] = remainders[i / 2]
+                        .mod(children[i].multiply(children[i]));
+            }
+            remainders = childRemainders;
+        }
+        BigInteger[] leaves = levels.get(0);
+        long[] gcds = new long[count];
+        for (int i = 0; i < count; i++) {
+            gcds[i] = remainders[i].divide(leaves[i]).gcd(leaves[i])
+                    .longValue();
+        }
+        return gcds;
+    }
+
+    /**
+     * How far the table of squarefree numbers used by {@link
+     * #randomSquarefreeNumber(int)} can go. This is 2<sup>20</sup>, which
+     * makes for a table of about 2.5 megabytes. Past this, random numbers are
+     * drawn until a squarefree one comes up.
+     */
+    private static final int SQUAREFREE_SAMPLER_LIMIT = 1 << 20;
+
+    /**
+     * The squarefree numbers from 1 up to but not including some bound, in
+     * ascending order.
+     */
+    private static final class SquarefreeTable {
+
+        private final int bound;
+
+        private final int[] values;
+
+        /**
+         * Counts the squarefree numbers less than a bound, which must not be
+         * more than the bound of this table.
+         */
+        private int countBelow(int n) {
+            int index = Arrays.binarySearch(this.values, n);
+            return index < 0 ? -index - 1 : index;
+        }
+
+        private SquarefreeTable(int bound) {
+            BitSet bitmap = squareFreeBitmap(0, bound);
+            this.bound = bound;
+            this.values = new int[bitmap.cardinality()];
+            int index = 0;
+            for (int n = bitmap.nextSetBit(0); n >= 0;
+                    n = bitmap.nextSetBit(n + 1)) {
+                this.values[index++] = n;
+            }
+        }
+
+    }
+
+    /**
+     * Grown as needed, up to {@link #SQUAREFREE_SAMPLER_LIMIT}.
+     */
+    private static volatile SquarefreeTable squarefreeTable
+            = new SquarefreeTable(0);
+
+    /**
+     * Gives a table with at least all the squarefree numbers less than a
+     * bound. The bound must not be more than the sampler limit.
+     */
+    private static SquarefreeTable squarefreeTableFor(int bound) {
+        SquarefreeTable table = squarefreeTable;
+        if (table.bound >= bound) {
+            return table;
+        }
+        synchronized (SquarefreeTable.class) {
+            table = squarefreeTable;
+            if (table.bound < bound) {
+                table = new SquarefreeTable(Math.min(SQUAREFREE_SAMPLER_LIMIT,
+                        Math.max(1024, Integer.highestOneBit(bound - 1) << 1)));
+                squarefreeTable = table;
+            }
+            return table;
+        }
+    }
+
+    private static long checkSquarefreeBound(int bound) {
+        long absBound = Math.abs((long) bound);
+        if (absBound < 2) {
+            throw new IllegalArgumentException("There are no positive "
+                    + "squarefree numbers less than " + absBound);
+        }
+        return absBound;
+    }
+
+    /**
+     * Provides a pseudorandom positive squarefree integer. For bounds up to
+     * 2<sup>20</sup>, this picks uniformly from a table of the squarefree
+     * numbers below the bound, which is built the first time it's needed.
+     * For larger bounds, numbers are drawn uniformly until one of them passes
+     * {@link #isSquareFree(int)}, which takes fewer than two draws on
+     * average. The pseudorandom numbers come from {@link ThreadLocalRandom},
+     * so that several threads can call this at once without contention.
      * @param bound The lowest number desired (but may use a negative integer).
      * For example, for a pseudorandom squarefree number between 1 and 97, you
      * can pass -100 or 100.
      * @return A pseudorandom positive squarefree integer. For example, given a
      * bound of 100, this might return 91.
+     * @throws IllegalArgumentException If the bound is &minus;1, 0 or 1, since
+     * then there are no squarefree numbers to choose from.
      */
     public static int randomSquarefreeNumber(int bound) {
-        return 100;
+        long absBound = checkSquarefreeBound(bound);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (absBound <= SQUAREFREE_SAMPLER_LIMIT) {
+            SquarefreeTable table = squarefreeTableFor((int) absBound);
+            int count = table.countBelow((int) absBound);
+            return table.values[random.nextInt(count)];
+        }
+        int candidate;
+        do {
+            candidate = (int) random.nextLong(1, absBound);
+        } while (!isSquareFree(candidate));
+        return candidate;
+    }
+
+    /**
+     * Provides several pseudorandom positive squarefree integers, each one
+     * chosen as by {@link #randomSquarefreeNumber(int)}.
+     * @param bound The lowest number desired (but may use a negative integer).
+     * For example, 100.
+     * @param count How many numbers to provide. For example, 5.
+     * @return A new array of pseudorandom positive squarefree integers, which
+     * may repeat. For example, given a bound of 100 and a count of 5, this
+     * might return 91, 13, 70, 91, 2.
+     * @throws IllegalArgumentException If the bound is &minus;1, 0 or 1, or
+     * if <code>count</code> is negative.
+     */
+    public static int[] randomSquarefreeNumbers(int bound, int count) {
+        long absBound = checkSquarefreeBound(bound);
+        if (count < 0) {
+            throw new IllegalArgumentException("Count " + count
+                    + " should not be negative");
+        }
+        int[] numbers = new int[count];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (absBound <= SQUAREFREE_SAMPLER_LIMIT) {
+            SquarefreeTable table = squarefreeTableFor((int) absBound);
+            int valueCount = table.countBelow((int) absBound);
+            for (int i = 0; i < count; i++) {
+                numbers[i] = table.values[random.nextInt(valueCount)];
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                int candidate;
+                do {
+                    candidate = (int) random.nextLong(1, absBound);
+                } while (!isSquareFree(candidate));
+                numbers[i] = candidate;
+            }
+        }
+        return numbers;
     }
 
 }
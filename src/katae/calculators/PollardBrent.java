@@ -0,0 +1,79 @@
+package katae.calculators;
+
+/**
+ * Pollard's rho method for finding a factor of a composite number, with
+ * Brent's cycle detection. The differences are multiplied together in batches
+ * so that a GCD only needs to be computed once per batch rather than once per
+ * step. All arithmetic is done in Montgomery form, see {@link Montgomery}.
+ * @author Alonso del Arte
+ */
+final class PollardBrent {
+
+    /**
+     * How many differences to multiply together before taking a GCD.
+     */
+    private static final int BATCH_SIZE = 128;
+
+    /**
+     * One step of the pseudorandom sequence, <i>x</i><sup>2</sup> +
+     * <i>c</i> mod <i>n</i>, in Montgomery form.
+     */
+    private static long step(Montgomery mont, long x, long c) {
+        long squared = mont.multiply(x, x);
+        long sum = squared + c - mont.getModulus();
+        return sum < 0 ? sum + mont.getModulus() : sum;
+    }
+
+    /**
+     * Finds a nontrivial factor of a composite number. The factor is not
+     * necessarily prime.
+     * @param n The number to find a factor of. Must be composite, and should
+     * not have small factors, since trial division is quicker for those. For
+     * example, 4611686014132420609.
+     * @return A factor greater than 1 but less than <code>n</code>. For
+     * example, 2147483647.
+     */
+    static long findFactor(long n) {
+        if ((n & 1) == 0) {
+            return 2;
+        }
+        Montgomery mont = new Montgomery(n);
+        for (long c = 1; ; c++) {
+            long y = mont.toMontgomery(2);
+            long x = y;
+            long ys = y;
+            long product = mont.one();
+            long g = 1;
+            for (int r = 1; g == 1; r *= 2) {
+                x = y;
+                for (int i = 0; i < r; i++) {
+                    y = step(mont, y, c);
+                }
+                for (int k = 0; k < r && g == 1; k += BATCH_SIZE) {
+                    ys = y;
+                    int batchEnd = Math.min(BATCH_SIZE, r - k);
+                    for (int i = 0; i < batchEnd; i++) {
+                        y = step(mont, y, c);
+                        product = mont.multiply(product, Math.abs(x - y));
+                    }
+                    g = NTFC.binaryGCD(product, n);
+                }
+            }
+            if (g == n) {
+                // The batch overshot; redo it one step at a time
+                do {
+                    ys = step(mont, ys, c);
+                    g = NTFC.binaryGCD(Math.abs(x - ys), n);
+                } while (g == 1);
+            }
+            if (g != n) {
+                return g;
+            }
+        }
+    }
+
+    private PollardBrent() {
+        // Prevent instantiation
+    }
+
+}
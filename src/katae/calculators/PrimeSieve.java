@@ -0,0 +1,308 @@
+package katae.calculators;
+
+import java.util.Arrays;
+
+/**
+ * A sieve of Eratosthenes that remembers which numbers up to a limit are
+ * prime. Only odd numbers are stored, one bit each, so the sieve up to
+ * <i>n</i> takes up about <i>n</i>/16 bytes. For example, the default sieve,
+ * up to 65536, takes up 4 kilobytes, and a sieve up to {@link
+ * Integer#MAX_VALUE} takes up 128 megabytes. The sieving is done in segments
+ * of 32 kilobytes, so that each segment fits in the processor's cache no matter
+ * how big the sieve gets.
+ * <p>The sieve can be extended after it's built. Lookups may happen while
+ * another thread extends the sieve; such a lookup sees the sieve either
+ * before or after the extension, never halfway through.</p>
+ * @author Alonso del Arte
+ */
+public final class PrimeSieve {
+
+    /**
+     * The limit of a sieve constructed without specifying a limit. This is
+     * 2<sup>16</sup>, enough to hold all the primes needed for trial division
+     * of any <code>int</code>.
+     */
+    public static final int DEFAULT_LIMIT = 1 << 16;
+
+    /**
+     * How many odd numbers are sieved at a time. This is 2<sup>18</sup> bits,
+     * or 32 kilobytes.
+     */
+    private static final int SEGMENT_BITS = 1 << 18;
+
+    /**
+     * Estimated overhead of the object and the array headers, in bytes.
+     */
+    private static final int OVERHEAD_BYTES = 48;
+
+    /**
+     * Bit <i>i</i> is on if 2<i>i</i> + 1 is prime.
+     */
+    private volatile long[] bits;
+
+    private volatile int limit;
+
+    /**
+     * Tells how many bits are needed to hold the odd numbers up to a limit.
+     */
+    private static int bitCount(int limit) {
+        return (int) (((long) limit + 1) / 2);
+    }
+
+    /**
+     * Lists the odd primes up to a bound with a plain sieve. This is only used
+     * to get the primes to sieve with, and the bound is never more than
+     * 46341, the square root of {@link Integer#MAX_VALUE}, rounded up.
+     */
+    private static int[] oddPrimesUpTo(int bound) {
+        boolean[] composite = new boolean[bound + 1];
+        int[] primes = new int[bound / 2 + 1];
+        int count = 0;
+        for (int p = 3; p <= bound; p += 2) {
+            if (!composite[p]) {
+                primes[count++] = p;
+                for (int multiple = p * p; multiple <= bound; multiple += 2 * p) {
+                    composite[multiple] = true;
+                }
+            }
+        }
+        return Arrays.copyOf(primes, count);
+    }
+
+    /**
+     * Sieves the bits from <code>fromBit</code> up to but not including
+     * <code>toBit</code>. The bits are first all turned on, then the bits of
+     * odd multiples of each odd prime are turned off.
+     */
+    private static void sieveSegment(long[] words, int fromBit, int toBit,
+            int[] sievingPrimes) {
+        int fromWord = fromBit >> 6;
+        int toWord = (toBit - 1) >> 6;
+        long fromMask = -1L << fromBit;
+        long toMask = -1L >>> (63 - ((toBit - 1) & 63));
+        if (fromWord == toWord) {
+            words[fromWord] |= fromMask & toMask;
+        } else {
+            words[fromWord] |= fromMask;
+            Arrays.fill(words, fromWord + 1, toWord, -1L);
+            words[toWord] |= toMask;
+        }
+        long lowNumber = 2L * fromBit + 1;
+        long highNumber = 2L * toBit - 1;
+        for (int p : sievingPrimes) {
+            long square = (long) p * p;
+            if (square > highNumber) {
+                break;
+            }
+            long start = Math.max(square, (lowNumber + p - 1) / p * p);
+            if ((start & 1) == 0) {
+                start += p;
+            }
+            for (long i = (start - 1) / 2; i < toBit; i += p) {
+                words[(int) (i >> 6)] &= ~(1L << i);
+            }
+        }
+        if (fromBit == 0 && toBit > 0) {
+            words[0] &= ~1L; // 1 is not prime
+        }
+    }
+
+    /**
+     * Extends this sieve so that it covers all numbers up to a new limit. If
+     * the new limit is not greater than the current limit, nothing happens.
+     * @param newLimit The new limit. For example, 16777216.
+     * @throws IllegalArgumentException If <code>newLimit</code> is negative.
+     */
+    public synchronized void extendTo(int newLimit) {
+        if (newLimit < 0) {
+            throw new IllegalArgumentException("Limit " + newLimit
+                    + " should not be negative");
+        }
+        int oldLimit = this.limit;
+        if (newLimit <= oldLimit) {
+            return;
+        }
+        int fromBit = bitCount(oldLimit);
+        int toBit = bitCount(newLimit);
+        long[] words = Arrays.copyOf(this.bits, (toBit + 63) >> 6);
+        int[] sievingPrimes = oddPrimesUpTo((int) Math.sqrt(newLimit) + 1);
+        for (int segStart = fromBit; segStart < toBit;
+                segStart += SEGMENT_BITS) {
+            sieveSegment(words, segStart,
+                    Math.min(segStart + SEGMENT_BITS, toBit), sievingPrimes);
+        }
+        this.bits = words;
+        this.limit = newLimit;
+    }
+
+    /**
+     * Gives the largest number this sieve knows about.
+     * @return The limit. For example, 65536.
+     */
+    public int getLimit() {
+        return this.limit;
+    }
+
+    /**
+     * Tells whether a number is prime by looking it up in this sieve.
+     * @param num The number to look up. May be negative. For example,
+     * &minus;47.
+     * @return True if the number is prime (even if negative), false otherwise.
+     * For example, &minus;2 and 47 both give true, &minus;25, 0 and 1 all give
+     * false.
+     * @throws IllegalArgumentException If the absolute value of
+     * <code>num</code> is greater than the limit of this sieve.
+     */
+    public boolean isPrime(int num) {
+        long n = Math.abs((long) num);
+        if (n > this.limit) {
+            throw new IllegalArgumentException("The number " + num
+                    + " is beyond the limit " + this.limit + " of this sieve");
+        }
+        if ((n & 1) == 0) {
+            return n == 2;
+        }
+        int index = (int) (n >> 1);
+        return (this.bits[index >> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Gives the smallest prime greater than a given number, provided it's
+     * within the limit of this sieve. This is meant for going through the
+     * primes in order, e.g., for trial division.
+     * @param num The number to start after. For example, 47.
+     * @return The next prime, or &minus;1 if there is no prime greater than
+     * <code>num</code> up to the limit. For example, 53.
+     */
+    public int nextPrime(int num) {
+        if (num < 2) {
+            return this.limit >= 2 ? 2 : -1;
+        }
+        int currLimit = this.limit;
+        long[] words = this.bits;
+        int limitBits = bitCount(currLimit);
+        int index = num / 2 + (num & 1);
+        if (index >= limitBits) {
+            return -1;
+        }
+        int wordIndex = index >> 6;
+        long word = words[wordIndex] & (-1L << index);
+        while (word == 0) {
+            wordIndex++;
+            if (wordIndex >= words.length) {
+                return -1;
+            }
+            word = words[wordIndex];
+        }
+        long prime = 2L * ((wordIndex << 6) + Long.numberOfTrailingZeros(word))
+                + 1;
+        return prime <= currLimit ? (int) prime : -1;
+    }
+
+    /**
+     * Counts the primes up to the limit of this sieve.
+     * @return The number of primes. For example, 6542 for the default limit of
+     * 65536.
+     */
+    public int primeCount() {
+        if (this.limit < 2) {
+            return 0;
+        }
+        long[] words = this.bits;
+        int count = 1; // For 2
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Lists the odd primes up to a bound, which must not be more than the
+     * limit of this sieve. This is for callers that go through the same primes
+     * many times, such as the segments of {@link RangeSieve}, and would rather
+     * read them from a flat array than call {@link #nextPrime(int)} each time.
+     * @param bound The largest number to consider. For example, 20.
+     * @return The odd primes up to the bound, in ascending order. For example,
+     * 3, 5, 7, 11, 13, 17, 19.
+     */
+    int[] oddPrimes(int bound) {
+        long[] words = this.bits;
+        int bitLimit = Math.min(bitCount(bound), words.length << 6);
+        int count = 0;
+        for (int w = 0; w < (bitLimit >> 6); w++) {
+            count += Long.bitCount(words[w]);
+        }
+        if ((bitLimit & 63) != 0) {
+            count += Long.bitCount(words[bitLimit >> 6]
+                    & (-1L >>> (-bitLimit & 63)));
+        }
+        int[] primes = new int[count];
+        int index = 0;
+        for (int w = 0; index < count; w++) {
+            long word = words[w];
+            while (word != 0 && index < count) {
+                primes[index++] = 2 * ((w << 6)
+                        + Long.numberOfTrailingZeros(word)) + 1;
+                word &= word - 1;
+            }
+        }
+        return primes;
+    }
+
+    /**
+     * Tells how much memory this sieve takes up. This includes an estimate
+     * for the object and array headers.
+     * @return The number of bytes. For example, 4144 for the default limit of
+     * 65536.
+     */
+    public long getMemoryFootprint() {
+        return estimateMemoryFootprint(this.limit);
+    }
+
+    /**
+     * Tells how much memory a sieve up to a given limit would take up, without
+     * building it. This is useful for sizing the sieve before extending it.
+     * @param limit The limit. For example, {@link Integer#MAX_VALUE}.
+     * @return The number of bytes. For example, 134217776 for {@link
+     * Integer#MAX_VALUE}.
+     * @throws IllegalArgumentException If <code>limit</code> is negative.
+     */
+    public static long estimateMemoryFootprint(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit " + limit
+                    + " should not be negative");
+        }
+        return 8L * ((bitCount(limit) + 63) >> 6) + OVERHEAD_BYTES;
+    }
+
+    /**
+     * Gives a summary of this sieve.
+     * @return A String with the limit, the number of primes and the memory
+     * footprint. For example, "PrimeSieve up to 65536 (6542 primes, 4144
+     * bytes)".
+     */
+    @Override
+    public String toString() {
+        return "PrimeSieve up to " + this.limit + " (" + this.primeCount()
+                + " primes, " + this.getMemoryFootprint() + " bytes)";
+    }
+
+    /**
+     * Constructs a sieve up to {@link #DEFAULT_LIMIT}.
+     */
+    public PrimeSieve() {
+        this(DEFAULT_LIMIT);
+    }
+
+    /**
+     * Constructs a sieve up to a given limit.
+     * @param limit The limit. For example, 1000.
+     * @throws IllegalArgumentException If <code>limit</code> is negative.
+     */
+    public PrimeSieve(int limit) {
+        this.bits = new long[0];
+        this.limit = 0;
+        this.extendTo(limit);
+    }
+
+}
@@ -0,0 +1,206 @@
+package katae.calculators;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A sieve of Eratosthenes over an interval, split into segments that are
+ * sieved in parallel by a {@link ForkJoinPool}. Only odd numbers are sieved,
+ * one bit each, and each segment covers 2<sup>18</sup> odd numbers, so that
+ * its bits fit in 32 kilobytes of cache. All the segments share one read-only
+ * array of the odd primes up to the square root of the end of the interval.
+ * Each segment lists its own primes, and the lists are put together in order
+ * at the end.
+ * @author Alonso del Arte
+ */
+final class RangeSieve {
+
+    /**
+     * How many odd numbers are in each segment.
+     */
+    private static final int SEGMENT_BITS = 1 << 18;
+
+    /**
+     * The most primes that can be listed in one array.
+     */
+    static final long MAX_PRIMES = Integer.MAX_VALUE - 8;
+
+    /**
+     * The first odd number in the interval.
+     */
+    private final long firstOdd;
+
+    /**
+     * How many odd numbers are in the interval.
+     */
+    private final long oddCount;
+
+    private final int[] basePrimes;
+
+    /**
+     * The primes found in each segment, filled in by the tasks.
+     */
+    private final long[][] segmentPrimes;
+
+    private final class SegmentTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 4549196519371003938L;
+
+        private final int fromSegment;
+        private final int toSegment;
+
+        @Override
+        protected void compute() {
+            if (this.toSegment - this.fromSegment == 1) {
+                segmentPrimes[this.fromSegment]
+                        = sieveSegment(this.fromSegment);
+            } else {
+                int mid = (this.fromSegment + this.toSegment) >>> 1;
+                invokeAll(new SegmentTask(this.fromSegment, mid),
+                        new SegmentTask(mid, this.toSegment));
+            }
+        }
+
+        private SegmentTask(int fromSegment, int toSegment) {
+            this.fromSegment = fromSegment;
+            this.toSegment = toSegment;
+        }
+
+    }
+
+    /**
+     * Sieves one segment and lists its primes. Bit <i>i</i> of the segment
+     * stands for the odd number <i>low</i> + 2<i>i</i>.
+     */
+    private long[] sieveSegment(int segment) {
+        long fromBit = (long) segment * SEGMENT_BITS;
+        int bitCount = (int) Math.min(SEGMENT_BITS, this.oddCount - fromBit);
+        long low = this.firstOdd + 2 * fromBit;
+        long high = low + 2L * (bitCount - 1);
+        long[] words = new long[(bitCount + 63) >> 6];
+        Arrays.fill(words, -1L);
+        words[words.length - 1] = -1L >>> (-bitCount & 63);
+        if (low == 1) {
+            words[0] &= ~1L; // 1 is not prime
+        }
+        for (int p : this.basePrimes) {
+            long square = (long) p * p;
+            if (square > high) {
+                break;
+            }
+            long start = low + Math.floorMod(-low, (long) p);
+            if ((start & 1) == 0) {
+                start += p;
+            }
+            start = Math.max(start, square);
+            for (long i = (start - low) >> 1; i < bitCount; i += p) {
+                words[(int) (i >> 6)] &= ~(1L << i);
+            }
+        }
+        int primeCount = 0;
+        for (long word : words) {
+            primeCount += Long.bitCount(word);
+        }
+        long[] primes = new long[primeCount];
+        int index = 0;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                int bit = (w << 6) + Long.numberOfTrailingZeros(word);
+                primes[index++] = low + 2L * bit;
+                word &= word - 1;
+            }
+        }
+        return primes;
+    }
+
+    /**
+     * Gives an upper bound for how many primes there are in an interval,
+     * without sieving. This is the lesser of two bounds. One is the
+     * Brun&ndash;Titchmarsh inequality in the form proved by Montgomery and
+     * Vaughan, &pi;(<i>x</i> + <i>y</i>) &minus; &pi;(<i>x</i>) &lt;
+     * 2<i>y</i>/log <i>y</i>, which is good for intervals far from 0. The
+     * other is the difference of Dusart's bounds, <i>x</i>/log <i>x</i>
+     * &times; (1 + 1/log <i>x</i>) &le; &pi;(<i>x</i>) &lt; <i>x</i>/log
+     * <i>x</i> &times; (1 + 1.2762/log <i>x</i>), which is good for intervals
+     * that start near 0. One more is added to each to make up for rounding.
+     * @param from The start of the interval, inclusive. Must not be negative.
+     * @param to The end of the interval, exclusive. Must be at least
+     * <code>from</code>.
+     * @return An upper bound for the number of primes. For example, for the
+     * interval from 0 to 10<sup>9</sup>, a number a little more than
+     * 50847534.
+     */
+    static long primeCountBound(long from, long to) {
+        long length = to - from;
+        if (length < 3) {
+            return length;
+        }
+        double y = length;
+        double bound = 2.0 * y / Math.log(y) + 1.0;
+        double x = to - 1;
+        double logX = Math.log(x);
+        double upper = x / logX * (1.0 + 1.2762 / logX);
+        double lower = 0.0;
+        if (from > 599) {
+            double logFrom = Math.log(from - 1);
+            lower = (from - 1) / logFrom * (1.0 + 1.0 / logFrom);
+        }
+        bound = Math.min(bound, upper - lower + 1.0);
+        return (long) Math.min(Math.ceil(bound), length);
+    }
+
+    /**
+     * Sieves the interval and lists its primes.
+     * @param pool The pool to run the segments in.
+     * @param includeTwo Whether 2 is in the interval.
+     * @return The primes in ascending order.
+     */
+    long[] run(ForkJoinPool pool, boolean includeTwo) {
+        if (this.segmentPrimes.length > 0) {
+            pool.invoke(new SegmentTask(0, this.segmentPrimes.length));
+        }
+        long total = includeTwo ? 1 : 0;
+        for (long[] primes : this.segmentPrimes) {
+            total += primes.length;
+        }
+        if (total > MAX_PRIMES) {
+            throw new IllegalArgumentException("There are " + total
+                    + " primes in the interval, too many for an array");
+        }
+        long[] primes = new long[(int) total];
+        int index = 0;
+        if (includeTwo) {
+            primes[index++] = 2;
+        }
+        for (long[] segment : this.segmentPrimes) {
+            System.arraycopy(segment, 0, primes, index, segment.length);
+            index += segment.length;
+        }
+        return primes;
+    }
+
+    /**
+     * Sets up a sieve for the odd numbers in an interval.
+     * @param from The start of the interval, inclusive. Must not be negative.
+     * @param to The end of the interval, exclusive. Must be at least
+     * <code>from</code>, and no more than the square of {@link
+     * Integer#MAX_VALUE}, plus 1.
+     * @param basePrimes The odd primes up to at least the square root of
+     * <code>to</code> &minus; 1, in ascending order. This array is not copied
+     * and must not be changed.
+     */
+    RangeSieve(long from, long to, int[] basePrimes) {
+        this.firstOdd = from | 1;
+        this.oddCount = to > this.firstOdd ? (to - this.firstOdd + 1) / 2 : 0;
+        this.basePrimes = basePrimes;
+        long segmentCount = (this.oddCount + SEGMENT_BITS - 1) / SEGMENT_BITS;
+        if (segmentCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Interval from " + from
+                    + " to " + to + " is too long to sieve");
+        }
+        this.segmentPrimes = new long[(int) segmentCount][];
+    }
+
+}
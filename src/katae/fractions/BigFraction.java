@@ -0,0 +1,253 @@
+package katae.fractions;
+
+import java.math.BigInteger;
+
+/**
+ * Represent fractions symbolically, with numerators and denominators of
+ * arbitrary size. This is the fallback for when {@link Fraction} would
+ * overflow. Operations that take and give {@link Rational} hand back a
+ * <code>Fraction</code> whenever the result fits in <code>long</code>, so a
+ * computation only pays for <code>BigInteger</code> arithmetic while it needs
+ * to.
+ * @author Alonso del Arte
+ */
+public class BigFraction implements Rational, Comparable<BigFraction> {
+
+    private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+
+    private final BigInteger fractNumer;
+    private final BigInteger fractDenom;
+
+    public BigInteger getNumerator() {
+        return this.fractNumer;
+    }
+
+    public BigInteger getDenominator() {
+        return this.fractDenom;
+    }
+
+    private static boolean fitsInLong(BigInteger number) {
+        return number.compareTo(LONG_MIN) >= 0 && number.compareTo(LONG_MAX) <= 0;
+    }
+
+    /**
+     * Gives the narrowest representation of a fraction in lowest terms with a
+     * positive denominator.
+     * @param numer The numerator. For example, 3.
+     * @param denom The denominator. Must be positive. For example, 1200128.
+     * @return A {@link Fraction} if both numerator and denominator fit in
+     * <code>long</code>, a <code>BigFraction</code> otherwise.
+     */
+    static Rational narrowest(BigInteger numer, BigInteger denom) {
+        if (fitsInLong(numer) && fitsInLong(denom)) {
+            return Fraction.fromLowestTerms(numer.longValue(), denom.longValue());
+        }
+        return new BigFraction(numer, denom, true);
+    }
+
+    private static Rational reduceToNarrowest(BigInteger numer,
+            BigInteger denom) {
+        BigInteger gcd = numer.gcd(denom);
+        if (!gcd.equals(BigInteger.ONE)) {
+            numer = numer.divide(gcd);
+            denom = denom.divide(gcd);
+        }
+        return narrowest(numer, denom);
+    }
+
+    /**
+     * Gives the narrowest representation of a fraction, in lowest terms with a
+     * positive denominator. This is the preferred way to obtain a rational
+     * number that might or might not fit in <code>long</code>.
+     * @param numerator The numerator. For example, 1.
+     * @param denominator The denominator. May be negative but not 0. For
+     * example, 2<sup>64</sup>.
+     * @return A {@link Fraction} if both numerator and denominator fit in
+     * <code>long</code> once in lowest terms, a <code>BigFraction</code>
+     * otherwise. With the example parameters, the result is a
+     * <code>BigFraction</code>, but for 2 over 2<sup>64</sup> it would be a
+     * <code>Fraction</code>.
+     * @throws IllegalArgumentException If <code>denominator</code> is 0.
+     */
+    public static Rational valueOf(BigInteger numerator,
+            BigInteger denominator) {
+        if (denominator.signum() == 0) {
+            throw new IllegalArgumentException("Denominator 0 is not allowed");
+        }
+        if (denominator.signum() < 0) {
+            numerator = numerator.negate();
+            denominator = denominator.negate();
+        }
+        return reduceToNarrowest(numerator, denominator);
+    }
+
+    @Override
+    public Rational plus(Rational addend) {
+        BigFraction other = addend.toBigFraction();
+        BigInteger numer = this.fractNumer.multiply(other.fractDenom)
+                .add(other.fractNumer.multiply(this.fractDenom));
+        return reduceToNarrowest(numer, this.fractDenom.multiply(other.fractDenom));
+    }
+
+    @Override
+    public Rational minus(Rational subtrahend) {
+        BigFraction other = subtrahend.toBigFraction();
+        BigInteger numer = this.fractNumer.multiply(other.fractDenom)
+                .subtract(other.fractNumer.multiply(this.fractDenom));
+        return reduceToNarrowest(numer, this.fractDenom.multiply(other.fractDenom));
+    }
+
+    @Override
+    public Rational times(Rational multiplicand) {
+        BigFraction other = multiplicand.toBigFraction();
+        return reduceToNarrowest(this.fractNumer.multiply(other.fractNumer),
+                this.fractDenom.multiply(other.fractDenom));
+    }
+
+    @Override
+    public Rational divides(Rational divisor) {
+        return this.times(divisor.reciprocal());
+    }
+
+    @Override
+    public Rational negate() {
+        return narrowest(this.fractNumer.negate(), this.fractDenom);
+    }
+
+    @Override
+    public Rational reciprocal() {
+        if (this.fractNumer.signum() == 0) {
+            throw new IllegalArgumentException("0 does not have a reciprocal");
+        }
+        if (this.fractNumer.signum() < 0) {
+            return narrowest(this.fractDenom.negate(), this.fractNumer.negate());
+        }
+        return narrowest(this.fractDenom, this.fractNumer);
+    }
+
+    @Override
+    public boolean isUnitFraction() {
+        return this.fractNumer.equals(BigInteger.ONE);
+    }
+
+    @Override
+    public double getNumericApproximation() {
+        int excessBits = Math.max(this.fractNumer.bitLength(),
+                this.fractDenom.bitLength()) - 1000;
+        if (excessBits > 0) {
+            return this.fractNumer.shiftRight(excessBits).doubleValue()
+                    / this.fractDenom.shiftRight(excessBits).doubleValue();
+        }
+        return this.fractNumer.doubleValue() / this.fractDenom.doubleValue();
+    }
+
+    @Override
+    public BigFraction toBigFraction() {
+        return this;
+    }
+
+    @Override
+    public int compareTo(Rational other) {
+        return this.compareTo(other.toBigFraction());
+    }
+
+    @Override
+    public int compareTo(BigFraction other) {
+        return this.fractNumer.multiply(other.fractDenom)
+                .compareTo(other.fractNumer.multiply(this.fractDenom));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.fractNumer.hashCode() + this.fractDenom.hashCode();
+    }
+
+    /**
+     * Determines if a BigFraction object is equal to another object.
+     * @param obj The object to be tested for equality.
+     * @return True if both objects are of class BigFraction and they represent
+     * the same arithmetical fraction, false otherwise. A BigFraction is not
+     * considered equal to a {@link Fraction} even if they are arithmetically
+     * equal; use {@link #compareTo(Rational)} for that.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final BigFraction other = (BigFraction) obj;
+        return this.fractNumer.equals(other.fractNumer)
+                && this.fractDenom.equals(other.fractDenom);
+    }
+
+    /**
+     * Gives a representation of this fraction as a String, in the same format
+     * as {@link Fraction#toString()}.
+     * @return A String with the numerator, followed by the character "/" and
+     * then the denominator, with "/1" omitted for integers.
+     */
+    @Override
+    public String toString() {
+        if (this.fractDenom.equals(BigInteger.ONE)) {
+            return this.fractNumer.toString();
+        } else {
+            return (this.fractNumer + "/" + this.fractDenom);
+        }
+    }
+
+    /**
+     * Constructs a fraction from a numerator and denominator already known to
+     * be in lowest terms, with the denominator positive.
+     * @param numerator The numerator.
+     * @param denominator The denominator.
+     * @param lowestTerms Should be true. Only serves to distinguish this
+     * constructor from the public one.
+     */
+    BigFraction(BigInteger numerator, BigInteger denominator,
+            boolean lowestTerms) {
+        this.fractNumer = numerator;
+        this.fractDenom = denominator;
+    }
+
+    public BigFraction(BigInteger numerator) {
+        this(numerator, BigInteger.ONE, true);
+    }
+
+    /**
+     * Constructs a fraction, putting it in lowest terms with a positive
+     * denominator.
+     * @param numerator The numerator. For example, 21.
+     * @param denominator The denominator. May be negative but not 0. For
+     * example, &minus;24.
+     * @throws IllegalArgumentException If <code>denominator</code> is 0.
+     */
+    public BigFraction(BigInteger numerator, BigInteger denominator) {
+        if (denominator.signum() == 0) {
+            throw new IllegalArgumentException("Denominator 0 is not allowed");
+        }
+        if (denominator.signum() < 0) {
+            numerator = numerator.negate();
+            denominator = denominator.negate();
+        }
+        BigInteger gcd = numerator.gcd(denominator);
+        if (!gcd.equals(BigInteger.ONE)) {
+            numerator = numerator.divide(gcd);
+            denominator = denominator.divide(gcd);
+        }
+        this.fractNumer = numerator;
+        this.fractDenom = denominator;
+    }
+
+    public BigFraction(long numerator, long denominator) {
+        this(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator));
+    }
+
+}
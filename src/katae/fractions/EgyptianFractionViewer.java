@@ -100,22 +100,22 @@ public final class EgyptianFractionViewer extends JFrame implements ActionListen
         if (this.egyptianFractions.isEmpty()) {
             readoutText = new StringBuilder("None wide enought to display");
         } else {
-            readoutText = new StringBuilder(this.egyptianFractions.get(0).toString());
+            readoutText = this.egyptianFractions.get(0).appendTo(new StringBuilder());
             for (int i = 1; i < this.egyptianFractions.size(); i++) {
-                readoutText.append(" + ").append(this.egyptianFractions.get(i));
+                this.egyptianFractions.get(i).appendTo(readoutText.append(" + "));
             }
         }
         this.readoutDispFracts.setText(readoutText.toString());
         if (this.undisplayedFractions.isEmpty()) {
             readoutText = new StringBuilder("None");
         } else {
-            readoutText = new StringBuilder(this.undisplayedFractions.get(0).toString());
+            readoutText = this.undisplayedFractions.get(0).appendTo(new StringBuilder());
             for (int j = 1; j < this.undisplayedFractions.size(); j++) {
-                readoutText.append(" + ").append(this.undisplayedFractions.get(j));
+                this.undisplayedFractions.get(j).appendTo(readoutText.append(" + "));
             }
         }
         this.readoutNonDispFracts.setText(readoutText.toString());
-        if (this.unprocAmount.compareTo(ZERO_FRACTION) == 0) {
+        if (this.unprocAmount.compareToZero() == 0) {
             readoutText = new StringBuilder("None");
         } else {
             readoutText = new StringBuilder(this.unprocAmount.toString());
@@ -189,6 +189,9 @@ public final class EgyptianFractionViewer extends JFrame implements ActionListen
         } catch (IllegalArgumentException iae) {
             String msg = "Bad denominator\n\"" + iae.getMessage() + "\"";
             JOptionPane.showMessageDialog(this, msg);
+        } catch (ArithmeticException ae) {
+            String msg = "Fraction out of range\n\"" + ae.getMessage() + "\"";
+            JOptionPane.showMessageDialog(this, msg);
         }
         this.entryNumerator.setText(Long.toString(this.inputFraction.getNumerator()));
         this.entryDenominator.setText(Long.toString(this.inputFraction.getDenominator()));
@@ -1,11 +1,32 @@
 package katae.fractions;
 
+import katae.calculators.NTFC;
+
+import java.math.BigInteger;
+
 /**
  * Represent fractions symbolically rather than numerically.
- * TODO: Get this to pass all the tests, or at least most of the tests.
  * @author Alonso del Arte, unless indicated otherwise.
  */
-public class Fraction implements Comparable<Fraction> {
+public class Fraction implements Rational, Comparable<Fraction> {
+
+    /**
+     * Numerators from &minus;<code>CACHE_BOUND</code> to
+     * <code>CACHE_BOUND</code> and denominators from 1 to
+     * <code>CACHE_BOUND</code> are cached by {@link #valueOf(long, long)}.
+     */
+    static final int CACHE_BOUND = 1024;
+
+    private static final int CACHE_ROW_LENGTH = 2 * CACHE_BOUND + 1;
+
+    /**
+     * Instances for small fractions in lowest terms, indexed by denominator
+     * and then numerator. The table is allocated up front but each slot is
+     * only filled the first time that fraction is asked for. Since Fraction is
+     * immutable, a race between two threads filling the same slot is harmless.
+     */
+    private static final Fraction[] CACHE
+            = new Fraction[CACHE_BOUND * CACHE_ROW_LENGTH];
 
     private final long fractNumer;
     private final long fractDenom;
@@ -19,86 +40,296 @@ public class Fraction implements Comparable<Fraction> {
     }
 
     /**
-     * Provides numerators and a denominator for cross-multiplied fractions.
-     * @param operand1 The first fraction to cross-multiply
-     * @param operand2 The second fraction to cross multiply
-     * @return Two cross-multiplied numerators and a denominator as an array of
-     * long.
+     * Adds or subtracts two fractions given as numerators and denominators in
+     * lowest terms, with positive denominators. This uses Henrici's method of
+     * pre-reducing by the GCD of the denominators, so the result comes out in
+     * lowest terms without any 128-bit GCD. The cross products are computed as
+     * 128-bit values, so they never overflow.
+     * @param numerA The numerator of the first fraction.
+     * @param denomA The denominator of the first fraction.
+     * @param numerB The numerator of the second fraction.
+     * @param denomB The denominator of the second fraction.
+     * @param subtract True to compute the first fraction minus the second,
+     * false to compute their sum.
+     * @return The sum or difference, in lowest terms.
+     * @throws FractionOverflowException If the result in lowest terms has a
+     * numerator or denominator outside the range of <code>long</code>.
      * @author Kunle Oshiyoye and Chris Delduco, October 16, 2019, at Java TDD
-     * Crash Course.
+     * Crash Course (original cross-multiplication).
+     */
+    private static Fraction crossAdd(long numerA, long denomA, long numerB,
+            long denomB, boolean subtract) {
+        long gcd = NTFC.binaryGCD(denomA, denomB);
+        long reducedDenomA = denomA / gcd;
+        long reducedDenomB = denomB / gcd;
+        long crossAHigh = Math.multiplyHigh(numerA, reducedDenomB);
+        long crossALow = numerA * reducedDenomB;
+        long crossBHigh = Math.multiplyHigh(numerB, reducedDenomA);
+        long crossBLow = numerB * reducedDenomA;
+        long numerHigh, numerLow;
+        if (subtract) {
+            numerLow = crossALow - crossBLow;
+            long borrow = Long.compareUnsigned(crossALow, crossBLow) < 0 ? 1 : 0;
+            numerHigh = crossAHigh - crossBHigh - borrow;
+        } else {
+            numerLow = crossALow + crossBLow;
+            long carry = Long.compareUnsigned(numerLow, crossALow) < 0 ? 1 : 0;
+            numerHigh = crossAHigh + crossBHigh + carry;
+        }
+        if (numerHigh == 0 && numerLow == 0) {
+            return fromLowestTerms(0, 1);
+        }
+        long secondGCD = 1;
+        if (gcd != 1) {
+            secondGCD = NTFC.binaryGCD(Int128.remainderOfAbs(numerHigh,
+                    numerLow, gcd), gcd);
+        }
+        long numer = Int128.divideToLong(numerHigh, numerLow, secondGCD);
+        long denom = Int128.multiplyExact(reducedDenomA, denomB / secondGCD);
+        return fromLowestTerms(numer, denom);
+    }
+
+    /**
+     * Multiplies two fractions given as numerators and denominators in lowest
+     * terms, with positive denominators. Each numerator is first reduced
+     * against the other fraction's denominator, so the product comes out in
+     * lowest terms and overflows only if the result itself can't be
+     * represented.
+     * @param numerA The numerator of the first fraction.
+     * @param denomA The denominator of the first fraction.
+     * @param numerB The numerator of the second fraction.
+     * @param denomB The denominator of the second fraction.
+     * @return The product, in lowest terms.
+     * @throws FractionOverflowException If the result in lowest terms has a
+     * numerator or denominator outside the range of <code>long</code>.
      */
-    private long[] crossMultiply(Fraction operand1, Fraction operand2) {
-        long newDenom = operand1.fractDenom * operand2.fractDenom;
-        long newCurrentNumer = operand1.fractNumer * operand2.fractDenom;
-        long newOperandNumer = operand2.fractNumer * operand1.fractDenom;
-        return new long[]{newCurrentNumer, newOperandNumer, newDenom};
+    private static Fraction crossMultiply(long numerA, long denomA, long numerB,
+            long denomB) {
+        if (numerA == 0 || numerB == 0) {
+            return fromLowestTerms(0, 1);
+        }
+        long gcdAB = NTFC.binaryGCD(numerA, denomB);
+        long gcdBA = NTFC.binaryGCD(numerB, denomA);
+        long numer = Int128.multiplyExact(numerA / gcdAB, numerB / gcdBA);
+        long denom = Int128.multiplyExact(denomA / gcdBA, denomB / gcdAB);
+        return fromLowestTerms(numer, denom);
     }
 
     public Fraction plus(Fraction addend) {
-        return new Fraction(0);
+        return crossAdd(this.fractNumer, this.fractDenom, addend.fractNumer,
+                addend.fractDenom, false);
     }
 
-    // STUB TO FAIL FIRST TEST
     public Fraction plus(int summand) {
-        return new Fraction(0);
+        return crossAdd(this.fractNumer, this.fractDenom, summand, 1, false);
     }
 
+    @Override
     public Fraction negate() {
-        return this;
+        if (this.fractNumer == Long.MIN_VALUE) {
+            throw new FractionOverflowException("Can't negate "
+                    + this.toString() + " without overflow");
+        }
+        return fromLowestTerms(-this.fractNumer, this.fractDenom);
     }
 
-    // STUB TO FAIL FIRST TEST
     public Fraction minus(Fraction subtrahend) {
-        return new Fraction(0);
+        return crossAdd(this.fractNumer, this.fractDenom,
+                subtrahend.fractNumer, subtrahend.fractDenom, true);
     }
 
-    // STUB TO FAIL FIRST TEST
     public Fraction minus(int subtrahend) {
-        return new Fraction(0);
+        return crossAdd(this.fractNumer, this.fractDenom, subtrahend, 1, true);
     }
 
-    // STUB TO FAIL FIRST TEST
     public Fraction times(Fraction multiplicand) {
-        return new Fraction(0);
+        return crossMultiply(this.fractNumer, this.fractDenom,
+                multiplicand.fractNumer, multiplicand.fractDenom);
     }
 
-    // STUB TO FAIL FIRST TEST
     public Fraction times(int multiplicand) {
-        return new Fraction(0);
+        return crossMultiply(this.fractNumer, this.fractDenom, multiplicand,
+                1);
+    }
+
+    /**
+     * Adds a rational number to this fraction. The computation stays on the
+     * <code>long</code> path if the addend is also a <code>Fraction</code> and
+     * the sum fits, otherwise it is done with {@link BigFraction}.
+     * @param addend The number to add. For example, 1/3.
+     * @return The sum, as a <code>Fraction</code> if it fits, as a
+     * <code>BigFraction</code> otherwise.
+     */
+    @Override
+    public Rational plus(Rational addend) {
+        if (addend instanceof Fraction) {
+            try {
+                return this.plus((Fraction) addend);
+            } catch (FractionOverflowException foe) {
+                // Fall through to BigFraction
+            }
+        }
+        return this.toBigFraction().plus(addend);
+    }
+
+    /**
+     * Subtracts a rational number from this fraction, promoting to {@link
+     * BigFraction} only if the difference doesn't fit in <code>long</code>.
+     * @param subtrahend The number to subtract. For example, 1/3.
+     * @return The difference, as a <code>Fraction</code> if it fits, as a
+     * <code>BigFraction</code> otherwise.
+     */
+    @Override
+    public Rational minus(Rational subtrahend) {
+        if (subtrahend instanceof Fraction) {
+            try {
+                return this.minus((Fraction) subtrahend);
+            } catch (FractionOverflowException foe) {
+                // Fall through to BigFraction
+            }
+        }
+        return this.toBigFraction().minus(subtrahend);
+    }
+
+    /**
+     * Multiplies this fraction by a rational number, promoting to {@link
+     * BigFraction} only if the product doesn't fit in <code>long</code>.
+     * @param multiplicand The number to multiply by. For example, 1/3.
+     * @return The product, as a <code>Fraction</code> if it fits, as a
+     * <code>BigFraction</code> otherwise.
+     */
+    @Override
+    public Rational times(Rational multiplicand) {
+        if (multiplicand instanceof Fraction) {
+            try {
+                return this.times((Fraction) multiplicand);
+            } catch (FractionOverflowException foe) {
+                // Fall through to BigFraction
+            }
+        }
+        return this.toBigFraction().times(multiplicand);
+    }
+
+    /**
+     * Divides this fraction by a rational number, promoting to {@link
+     * BigFraction} only if the quotient doesn't fit in <code>long</code>.
+     * @param divisor The number to divide by. For example, 1/3.
+     * @return The quotient, as a <code>Fraction</code> if it fits, as a
+     * <code>BigFraction</code> otherwise.
+     * @throws IllegalArgumentException If <code>divisor</code> is 0.
+     */
+    @Override
+    public Rational divides(Rational divisor) {
+        if (divisor instanceof Fraction) {
+            try {
+                return this.divides((Fraction) divisor);
+            } catch (FractionOverflowException foe) {
+                // Fall through to BigFraction
+            }
+        }
+        return this.toBigFraction().divides(divisor);
     }
 
-    // STUB TO FAIL FIRST TEST
+    /**
+     * Gives the reciprocal of this fraction.
+     * @return The reciprocal. For example, for 7/8, the reciprocal is 8/7.
+     * @throws IllegalArgumentException If this fraction is 0.
+     */
+    @Override
     public Fraction reciprocal() {
-        return new Fraction(0);
+        if (this.fractNumer == 0) {
+            throw new IllegalArgumentException("0 does not have a reciprocal");
+        }
+        if (this.fractNumer < 0) {
+            if (this.fractNumer == Long.MIN_VALUE) {
+                throw new FractionOverflowException("Can't take reciprocal of "
+                        + this.toString() + " without overflow");
+            }
+            return fromLowestTerms(-this.fractDenom, -this.fractNumer);
+        }
+        return fromLowestTerms(this.fractDenom, this.fractNumer);
     }
 
-    // STUB TO FAIL FIRST TEST
+    /**
+     * Divides this fraction by another. The divisor's numerator and
+     * denominator are cross-multiplied in swapped positions, after the common
+     * factors are divided out, and only then is the sign moved to the
+     * numerator. So a divisor with numerator <code>Long.MIN_VALUE</code> is
+     * fine as long as the quotient fits.
+     * @param divisor The fraction to divide by. For example, &minus;2/3.
+     * @return The quotient, in lowest terms. For example, if this fraction is
+     * 7/8, the result is &minus;21/16.
+     * @throws IllegalArgumentException If <code>divisor</code> is 0.
+     * @throws FractionOverflowException If the quotient in lowest terms has a
+     * numerator or denominator outside the range of <code>long</code>.
+     */
     public Fraction divides(Fraction divisor) {
-        return new Fraction(0);
+        if (divisor.fractNumer == 0) {
+            throw new IllegalArgumentException("Can't divide "
+                    + this.toString() + " by 0");
+        }
+        if (this.fractNumer == 0) {
+            return fromLowestTerms(0, 1);
+        }
+        long gcdNumers = NTFC.binaryGCD(this.fractNumer, divisor.fractNumer);
+        long gcdDenoms = NTFC.binaryGCD(this.fractDenom, divisor.fractDenom);
+        long numer = Int128.multiplyExact(this.fractNumer / gcdNumers,
+                divisor.fractDenom / gcdDenoms);
+        long denom = Int128.multiplyExact(this.fractDenom / gcdDenoms,
+                divisor.fractNumer / gcdNumers);
+        if (denom < 0) {
+            if (numer == Long.MIN_VALUE || denom == Long.MIN_VALUE) {
+                throw new FractionOverflowException("Can't divide "
+                        + this.toString() + " by " + divisor.toString()
+                        + " without overflow");
+            }
+            numer = -numer;
+            denom = -denom;
+        }
+        return fromLowestTerms(numer, denom);
     }
 
-    // STUB TO FAIL FIRST TEST
     public Fraction divides(int divisor) {
-        return new Fraction(0);
+        if (divisor == 0) {
+            throw new IllegalArgumentException("Can't divide "
+                    + this.toString() + " by 0");
+        }
+        long inverseNumer = divisor < 0 ? -1 : 1;
+        long inverseDenom = Math.abs((long) divisor);
+        return crossMultiply(this.fractNumer, this.fractDenom, inverseNumer,
+                inverseDenom);
     }
 
-    // STUB TO FAIL TEST
+    /**
+     * Gives a numerical approximation of this fraction, as a floating point
+     * number.
+     * @return The approximation. For example, for 1/3, this would be roughly
+     * 0.3333333333333333.
+     */
+    @Override
     public double getNumericApproximation() {
-        return 0.0;
+        return (double) this.fractNumer / (double) this.fractDenom;
     }
 
     /**
-     * Gives a hash code. The hash codes are not unique for all possible
-     * Fraction objects. Hopefully, though, the hash codes will be distinct
-     * enough for most use cases.
-     * @return The hash code. The sign of the hash code may or may not match the
-     * sign of the fraction (e.g., a negative fraction could get a positive hash
-     * code).
+     * Gives a hash code. Since fractions are always in lowest terms, equal
+     * fractions hash the same. The numerator and denominator are combined
+     * into a 64-bit value which is then put through the finalizer of Austin
+     * Appleby's MurmurHash3, so that every bit of the numerator and
+     * denominator affects every bit of the hash code, and then folded to 32
+     * bits. The hash codes are not unique for all possible Fraction objects,
+     * but they should be well spread out even in very large hash tables.
+     * @return The hash code. The sign of the hash code has nothing to do with
+     * the sign of the fraction.
      * @author Alonso del Arte
      */
     @Override
     public int hashCode() {
-        return (int) this.fractDenom * 65536 + (int) this.fractNumer;
+        long hash = this.fractNumer * 0x9E3779B97F4A7C15L + this.fractDenom;
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return (int) (hash ^ (hash >>> 32));
     }
 
     /**
@@ -130,6 +361,78 @@ public class Fraction implements Comparable<Fraction> {
         return (this.fractDenom == other.fractDenom);
     }
 
+    /**
+     * Appends the magnitude of a number to a buffer, without the minus sign.
+     * This works even for <code>Long.MIN_VALUE</code>, since negating it
+     * gives back <code>Long.MIN_VALUE</code>, which read as unsigned is
+     * 2<sup>63</sup>.
+     */
+    private static void appendMagnitude(StringBuilder builder, long number) {
+        if (number < 0) {
+            builder.append(Long.toUnsignedString(-number));
+        } else {
+            builder.append(number);
+        }
+    }
+
+    /**
+     * Writes this fraction into a buffer, in the same format as {@link
+     * #toString()}. No intermediate String is created, so this is the better
+     * choice for writing out many fractions.
+     * @param builder The buffer to write to. For example, a buffer already
+     * holding "1/2 + ".
+     * @return The same buffer, to allow chaining. For example, if this
+     * fraction is 1/3, the buffer would now hold "1/2 + 1/3".
+     */
+    public StringBuilder appendTo(StringBuilder builder) {
+        builder.append(this.fractNumer);
+        if (this.fractDenom != 1) {
+            builder.append('/').append(this.fractDenom);
+        }
+        return builder;
+    }
+
+    /**
+     * Writes this fraction into a buffer, in the same format as {@link
+     * #toHTMLString()}.
+     * @param builder The buffer to write to.
+     * @return The same buffer, to allow chaining.
+     */
+    public StringBuilder appendHTMLTo(StringBuilder builder) {
+        if (this.fractNumer < 0) {
+            builder.append("&minus;");
+        }
+        if (this.fractDenom == 1) {
+            appendMagnitude(builder, this.fractNumer);
+        } else {
+            builder.append("<sup>");
+            appendMagnitude(builder, this.fractNumer);
+            builder.append("</sup>&frasl;<sub>").append(this.fractDenom)
+                    .append("</sub>");
+        }
+        return builder;
+    }
+
+    /**
+     * Writes this fraction into a buffer, in the same format as {@link
+     * #toTeXString()}.
+     * @param builder The buffer to write to.
+     * @return The same buffer, to allow chaining.
+     */
+    public StringBuilder appendTeXTo(StringBuilder builder) {
+        if (this.fractNumer < 0) {
+            builder.append('-');
+        }
+        if (this.fractDenom == 1) {
+            appendMagnitude(builder, this.fractNumer);
+        } else {
+            builder.append("\\frac{");
+            appendMagnitude(builder, this.fractNumer);
+            builder.append("}{").append(this.fractDenom).append('}');
+        }
+        return builder;
+    }
+
     /**
      * Gives a representation of this fraction as a String, using ASCII
      * characters only.
@@ -142,30 +445,395 @@ public class Fraction implements Comparable<Fraction> {
     public String toString() {
         if (this.fractDenom == 1) {
             return Long.toString(this.fractNumer);
-        } else {
-            return (this.fractNumer + "/" + this.fractDenom);
         }
+        return this.appendTo(new StringBuilder(41)).toString();
     }
 
-    // STUB TO FAIL FIRST TEST
+    /**
+     * Gives a representation of this fraction for use in a Web page.
+     * @return A String with the numerator as a superscript, the HTML fraction
+     * slash and the denominator as a subscript, with the minus sign, if any,
+     * in front. For example,
+     * "&lt;sup&gt;7&lt;/sup&gt;&amp;frasl;&lt;sub&gt;12&lt;/sub&gt;" for 7/12.
+     * If this fraction is an integer, it's just the integer, e.g., "12".
+     */
     public String toHTMLString() {
-        return "Not implemented yet";
+        return this.appendHTMLTo(new StringBuilder(64)).toString();
     }
 
-    // STUB TO FAIL FIRST TEST
+    /**
+     * Gives a representation of this fraction for use in a TeX document.
+     * @return A String using the <code>\frac</code> command, with the minus
+     * sign, if any, in front. For example, "\frac{8}{5}" for 8/5. If this
+     * fraction is an integer, it's just the integer, e.g., "12".
+     */
     public String toTeXString() {
-        return "Not implemented yet";
+        return this.appendTeXTo(new StringBuilder(56)).toString();
     }
 
-    // STUB TO FAIL FIRST TEST
+    /**
+     * Tells whether this fraction is a unit fraction.
+     * @return True if this fraction has numerator 1, false otherwise. For
+     * example, true for 1/441 and for 3/1323 (which is 1/441 in lowest
+     * terms), false for 8/5.
+     */
+    @Override
     public boolean isUnitFraction() {
-        return false;
+        return this.fractNumer == 1;
     }
 
-    // STUB TO FAIL FIRST TEST
+    @Override
+    public BigFraction toBigFraction() {
+        return new BigFraction(BigInteger.valueOf(this.fractNumer),
+                BigInteger.valueOf(this.fractDenom), true);
+    }
+
+    /**
+     * Compares this fraction to another fraction without creating any
+     * objects. Fractions with the same denominator or with different signs are
+     * settled without multiplying. Otherwise the cross products are computed
+     * as 128-bit values, so the comparison is exact even for fractions with
+     * very large numerators and denominators.
+     * @param other The fraction to compare this fraction to. For example,
+     * 355/113.
+     * @return A negative number if this fraction is less than the other
+     * fraction, 0 if they are equal, a positive number if this fraction is
+     * greater. For example, if this fraction is 22/7, the result would be a
+     * positive number.
+     * @throws NullPointerException If <code>other</code> is null.
+     */
     @Override
     public int compareTo(Fraction other) {
-        return -1;
+        if (this.fractDenom == other.fractDenom) {
+            return Long.compare(this.fractNumer, other.fractNumer);
+        }
+        int thisSign = Long.signum(this.fractNumer);
+        int otherSign = Long.signum(other.fractNumer);
+        if (thisSign != otherSign) {
+            return thisSign - otherSign;
+        }
+        long thisCrossHigh = Math.multiplyHigh(this.fractNumer,
+                other.fractDenom);
+        long thisCrossLow = this.fractNumer * other.fractDenom;
+        long otherCrossHigh = Math.multiplyHigh(other.fractNumer,
+                this.fractDenom);
+        long otherCrossLow = other.fractNumer * this.fractDenom;
+        return Int128.compare(thisCrossHigh, thisCrossLow, otherCrossHigh,
+                otherCrossLow);
+    }
+
+    /**
+     * Compares this fraction to 0. Quicker than comparing to a Fraction
+     * object for 0.
+     * @return &minus;1 if this fraction is negative, 0 if it is 0, 1 if it is
+     * positive. For example, 1 for 7/8.
+     */
+    public int compareToZero() {
+        return Long.signum(this.fractNumer);
+    }
+
+    /**
+     * Compares this fraction to 1. Quicker than comparing to a Fraction
+     * object for 1.
+     * @return A negative number if this fraction is less than 1, 0 if it is 1,
+     * a positive number if it is greater than 1. For example, a negative
+     * number for 7/8.
+     */
+    public int compareToOne() {
+        return Long.compare(this.fractNumer, this.fractDenom);
+    }
+
+    /**
+     * Tells whether this fraction is in the closed unit interval, that is, at
+     * least 0 but not more than 1.
+     * @return True if 0 &le; this fraction &le; 1, false otherwise. For
+     * example, true for 0, 7/8 and 1, false for &minus;1/2 and 3/2.
+     */
+    public boolean isInUnitInterval() {
+        return this.fractNumer >= 0 && this.fractNumer <= this.fractDenom;
+    }
+
+    /**
+     * Compares this fraction to a rational number that might not be a
+     * <code>Fraction</code>.
+     * @param other The number to compare this fraction to.
+     * @return A negative number if this fraction is less than the other
+     * number, 0 if they are equal, a positive number if this fraction is
+     * greater.
+     * @throws NullPointerException If <code>other</code> is null.
+     */
+    @Override
+    public int compareTo(Rational other) {
+        if (other instanceof Fraction) {
+            return this.compareTo((Fraction) other);
+        }
+        return this.toBigFraction().compareTo(other);
+    }
+
+    /**
+     * Gives a Fraction known to already be in lowest terms with a positive
+     * denominator, from the cache if it's small enough.
+     * @param numerator The numerator.
+     * @param denominator The denominator. Must be positive.
+     * @return A Fraction, possibly a cached instance.
+     */
+    static Fraction fromLowestTerms(long numerator, long denominator) {
+        if (denominator <= CACHE_BOUND && numerator >= -CACHE_BOUND
+                && numerator <= CACHE_BOUND) {
+            int index = (int) ((denominator - 1) * CACHE_ROW_LENGTH + numerator
+                    + CACHE_BOUND);
+            Fraction cached = CACHE[index];
+            if (cached == null) {
+                cached = new Fraction(numerator, denominator, true);
+                CACHE[index] = cached;
+            }
+            return cached;
+        }
+        return new Fraction(numerator, denominator, true);
+    }
+
+    /**
+     * Gives a Fraction for the given numerator and denominator. This is the
+     * preferred way to obtain a Fraction, as fractions with small numerators
+     * and denominators (in lowest terms, absolute values up to 1024) are
+     * cached, in much the same way as {@link Long#valueOf(long)} caches small
+     * <code>Long</code> values.
+     * @param numerator The numerator. For example, 3.
+     * @param denominator The denominator. May be negative but not 0. For
+     * example, 4.
+     * @return A Fraction in lowest terms. For example, 3/4. Calling this
+     * function again with 9 and 12 may well give the same instance.
+     * @throws IllegalArgumentException If <code>denominator</code> is 0.
+     * @throws FractionOverflowException If the denominator is negative and the
+     * sign can't be moved to the numerator without overflow.
+     */
+    public static Fraction valueOf(long numerator, long denominator) {
+        if (denominator == 1) {
+            return fromLowestTerms(numerator, 1);
+        }
+        if (denominator == 0) {
+            throw new IllegalArgumentException("Denominator 0 is not allowed");
+        }
+        long gcd = NTFC.binaryGCD(numerator, denominator);
+        long numer = numerator / gcd;
+        long denom = denominator / gcd;
+        if (denom < 0) {
+            if (numer == Long.MIN_VALUE || denom == Long.MIN_VALUE) {
+                throw new FractionOverflowException("Can't move the sign of "
+                        + numerator + "/" + denominator + " to the numerator");
+            }
+            numer = -numer;
+            denom = -denom;
+        }
+        return fromLowestTerms(numer, denom);
+    }
+
+    /**
+     * Gives a Fraction for the given integer.
+     * @param number The integer. For example, 12.
+     * @return A Fraction with the given numerator and 1 as denominator,
+     * possibly a cached instance.
+     */
+    public static Fraction valueOf(long number) {
+        return fromLowestTerms(number, 1);
+    }
+
+    private static boolean isDigit(char ch) {
+        return ch >= '0' && ch <= '9';
+    }
+
+    private static boolean isSpace(char ch) {
+        return ch == ' ' || ch == '\t';
+    }
+
+    private static int skipDigits(CharSequence text, int index, int endIndex) {
+        while (index < endIndex && isDigit(text.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int skipSpaces(CharSequence text, int index, int endIndex) {
+        while (index < endIndex && isSpace(text.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static NumberFormatException badFormat(CharSequence text,
+            int beginIndex, int endIndex, String problem) {
+        return new NumberFormatException(problem + " in \""
+                + text.subSequence(beginIndex, endIndex) + "\"");
+    }
+
+    /**
+     * Reads a run of decimal digits as a non-negative number.
+     * @throws NumberFormatException If the number is greater than
+     * <code>Long.MAX_VALUE</code>.
+     */
+    private static long digitsValue(CharSequence text, int fromIndex,
+            int toIndex) {
+        long value = 0;
+        for (int i = fromIndex; i < toIndex; i++) {
+            int digit = text.charAt(i) - '0';
+            if (value > (Long.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException("The number \""
+                        + text.subSequence(fromIndex, toIndex)
+                        + "\" is outside the range of long");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parses a fraction from text. See {@link #parse(CharSequence, int, int)}
+     * for the accepted formats.
+     * @param text The text to parse. For example, "1 3/4".
+     * @return The fraction, in lowest terms. For example, 7/4.
+     * @throws NumberFormatException If the text is not in one of the accepted
+     * formats, or if a number in it is outside the range of <code>long</code>.
+     * @throws IllegalArgumentException If the denominator is 0.
+     */
+    public static Fraction parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Parses a fraction from part of a text, without extracting the part as a
+     * String. This makes it possible to read fractions out of a large buffer,
+     * such as a line from a file, one after another. The accepted formats are:
+     * <ul>
+     * <li>An integer, such as "12".</li>
+     * <li>A numerator and denominator, such as "3/4" or "9/12".</li>
+     * <li>A mixed number, with one or more spaces between the whole part and
+     * the fractional part, such as "1 3/4".</li>
+     * <li>A decimal, such as "0.375" or ".375". This is always exact, since a
+     * decimal is just a fraction with a power of 10 as denominator.</li>
+     * </ul>
+     * Any of these may have a minus sign or a plus sign in front, and may have
+     * spaces before and after. The minus sign of a mixed number applies to the
+     * whole mixed number, so "-1 3/4" is &minus;7/4, not &minus;1/4.
+     * @param text The text to parse. For example, "x = 0.375;".
+     * @param beginIndex The index of the first character to parse. For
+     * example, 4.
+     * @param endIndex The index just past the last character to parse. For
+     * example, 9.
+     * @return The fraction, in lowest terms. For example, 3/8.
+     * @throws NumberFormatException If the text is not in one of the accepted
+     * formats, or if a number in it, or the result, is outside the range of
+     * <code>long</code>.
+     * @throws IllegalArgumentException If the denominator is 0.
+     * @throws IndexOutOfBoundsException If <code>beginIndex</code> is
+     * negative, if <code>endIndex</code> is greater than the length of the
+     * text, or if <code>beginIndex</code> is greater than
+     * <code>endIndex</code>.
+     */
+    public static Fraction parse(CharSequence text, int beginIndex,
+            int endIndex) {
+        if (beginIndex < 0 || endIndex > text.length()
+                || beginIndex > endIndex) {
+            throw new IndexOutOfBoundsException("Range " + beginIndex + " to "
+                    + endIndex + " is out of bounds for length "
+                    + text.length());
+        }
+        int end = endIndex;
+        while (end > beginIndex && isSpace(text.charAt(end - 1))) {
+            end--;
+        }
+        int pos = skipSpaces(text, beginIndex, end);
+        boolean negative = false;
+        if (pos < end && (text.charAt(pos) == '-' || text.charAt(pos) == '+')) {
+            negative = text.charAt(pos) == '-';
+            pos++;
+        }
+        int firstStart = pos;
+        pos = skipDigits(text, pos, end);
+        long first = digitsValue(text, firstStart, pos);
+        boolean hasFirst = pos > firstStart;
+        long numer;
+        long denom = 1;
+        if (pos == end) {
+            if (!hasFirst) {
+                throw badFormat(text, beginIndex, endIndex, "No digits");
+            }
+            numer = first;
+        } else if (text.charAt(pos) == '.') {
+            int fractionStart = pos + 1;
+            pos = skipDigits(text, fractionStart, end);
+            if (pos != end) {
+                throw badFormat(text, beginIndex, endIndex,
+                        "Unexpected character");
+            }
+            if (!hasFirst && pos == fractionStart) {
+                throw badFormat(text, beginIndex, endIndex, "No digits");
+            }
+            int fractionEnd = pos;
+            while (fractionEnd > fractionStart
+                    && text.charAt(fractionEnd - 1) == '0') {
+                fractionEnd--;
+            }
+            int places = fractionEnd - fractionStart;
+            if (places > 18) {
+                throw badFormat(text, beginIndex, endIndex,
+                        "Too many decimal places");
+            }
+            for (int i = 0; i < places; i++) {
+                denom *= 10;
+            }
+            long fractionDigits = digitsValue(text, fractionStart, fractionEnd);
+            long scaled = first * denom;
+            numer = scaled + fractionDigits;
+            if (Math.multiplyHigh(first, denom) != 0 || scaled < 0
+                    || numer < 0) {
+                throw badFormat(text, beginIndex, endIndex,
+                        "Value outside the range of long");
+            }
+        } else {
+            if (!hasFirst) {
+                throw badFormat(text, beginIndex, endIndex, "No digits");
+            }
+            long whole = 0;
+            if (isSpace(text.charAt(pos))) {
+                whole = first;
+                pos = skipSpaces(text, pos, end);
+                firstStart = pos;
+                pos = skipDigits(text, pos, end);
+                if (pos == firstStart) {
+                    throw badFormat(text, beginIndex, endIndex,
+                            "Expected numerator of mixed number");
+                }
+                first = digitsValue(text, firstStart, pos);
+            }
+            if (pos == end || text.charAt(pos) != '/') {
+                throw badFormat(text, beginIndex, endIndex,
+                        "Expected \"/\"");
+            }
+            int denomStart = pos + 1;
+            pos = skipDigits(text, denomStart, end);
+            if (pos != end || pos == denomStart) {
+                throw badFormat(text, beginIndex, endIndex,
+                        "Expected denominator");
+            }
+            denom = digitsValue(text, denomStart, pos);
+            if (denom == 0) {
+                throw new IllegalArgumentException(
+                        "Denominator 0 is not allowed");
+            }
+            long scaled = whole * denom;
+            numer = scaled + first;
+            if (Math.multiplyHigh(whole, denom) != 0 || scaled < 0
+                    || numer < 0) {
+                throw badFormat(text, beginIndex, endIndex,
+                        "Value outside the range of long");
+            }
+        }
+        return valueOf(negative ? -numer : numer, denom);
+    }
+
+    private Fraction(long numerator, long denominator, boolean lowestTerms) {
+        this.fractNumer = numerator;
+        this.fractDenom = denominator;
     }
 
     public Fraction(long numerator) {
@@ -173,10 +841,34 @@ public class Fraction implements Comparable<Fraction> {
         this.fractDenom = 1;
     }
 
-    // PRIMARY CONSTRUCTOR STUB
+    /**
+     * Constructs a fraction, putting it in lowest terms with the sign on the
+     * numerator. Consider using {@link #valueOf(long, long)} instead, which
+     * can avoid creating a new object.
+     * @param numerator The numerator. For example, 21.
+     * @param denominator The denominator. May be negative but not 0. For
+     * example, &minus;24.
+     * @throws IllegalArgumentException If <code>denominator</code> is 0.
+     * @throws FractionOverflowException If the denominator is negative and the
+     * sign can't be moved to the numerator without overflow.
+     */
     public Fraction(long numerator, long denominator) {
-        this.fractNumer = numerator;
-        this.fractDenom = denominator;
+        if (denominator == 0) {
+            throw new IllegalArgumentException("Denominator 0 is not allowed");
+        }
+        long gcd = NTFC.binaryGCD(numerator, denominator);
+        long numer = numerator / gcd;
+        long denom = denominator / gcd;
+        if (denom < 0) {
+            if (numer == Long.MIN_VALUE || denom == Long.MIN_VALUE) {
+                throw new FractionOverflowException("Can't move the sign of "
+                        + numerator + "/" + denominator + " to the numerator");
+            }
+            numer = -numer;
+            denom = -denom;
+        }
+        this.fractNumer = numer;
+        this.fractDenom = denom;
     }
 
 }
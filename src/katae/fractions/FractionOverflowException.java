@@ -0,0 +1,23 @@
+package katae.fractions;
+
+/**
+ * Thrown when the result of an operation on {@link Fraction} objects, even
+ * after being put in lowest terms, has a numerator or denominator that can't
+ * be represented as a <code>long</code>. Intermediate results that overflow
+ * do not cause this exception as long as the final result fits.
+ * @author Alonso del Arte
+ */
+public class FractionOverflowException extends ArithmeticException {
+
+    private static final long serialVersionUID = 4549196519371003937L;
+
+    /**
+     * Constructs the exception with a detail message.
+     * @param message The detail message. For example, "The product of
+     * 3037000500 and 3037000500 is outside the range of long".
+     */
+    public FractionOverflowException(String message) {
+        super(message);
+    }
+
+}
@@ -31,8 +31,6 @@ import javax.swing.JPanel;
  */
 public final class FractionPieChartCanvas extends JPanel {
     
-    private static final Fraction ZERO = new Fraction(0);
-    
     /**
      * The smallest positive fraction this pie chart can display, 1/360, 
      * corresponding to 1 degree (&pi;/180 radians). Even this may be too narrow 
@@ -124,7 +122,7 @@ public final class FractionPieChartCanvas extends JPanel {
                 + DEFAULT_ZERO_INDENT, DEFAULT_PIE_DIAMETER - 2 
                         * DEFAULT_ZERO_INDENT, DEFAULT_PIE_DIAMETER - 2 
                                 * DEFAULT_ZERO_INDENT);
-        Fraction runningSum = ZERO;
+        MutableFraction runningSum = new MutableFraction();
         int startAngle = 0;
         int arcAngle;
         for (Fraction fraction : this.dispFracts) {
@@ -133,7 +131,7 @@ public final class FractionPieChartCanvas extends JPanel {
             g.setColor(this.nextColor());
             g.fillArc(DEFAULT_MARGIN, DEFAULT_MARGIN, DEFAULT_PIE_DIAMETER, 
                     DEFAULT_PIE_DIAMETER, startAngle, arcAngle);
-            runningSum = runningSum.plus(fraction);
+            runningSum.addInPlace(fraction);
             startAngle = (int) Math.floor(runningSum.getNumericApproximation() 
                     * 360);
         }
@@ -142,7 +140,7 @@ public final class FractionPieChartCanvas extends JPanel {
     private void reviewFractionList() {
         this.dispFracts = new ArrayList<>();
         this.fracts.stream().filter((fract) 
-                -> (fract.compareTo(LARGEST_DISPLAYABLE_FRACTION) <= 0 
+                -> (fract.compareToOne() <= 0 
                         && fract.compareTo(SMALLEST_DISPLAYABLE_FRACTION) 
                                 >= 0)).forEachOrdered((fract) -> {
             this.dispFracts.add(fract);
@@ -161,6 +159,18 @@ public final class FractionPieChartCanvas extends JPanel {
         this.repaint();
     }
     
+    /**
+     * Change the fractions to represent as a pie chart, given as a vector 
+     * rather than a list. Otherwise the same as {@link 
+     * #changeFractionList(java.util.ArrayList) changeFractionList(ArrayList)}.
+     * @param replacement A new vector of fractions to represent as a pie chart.
+     */
+    public void changeFractionList(FractionVector replacement) {
+        this.fracts = replacement.toList();
+        this.reviewFractionList();
+        this.repaint();
+    }
+    
     /**
      * Constructs a new canvas in which to display the pie chart of fractions. 
      * The list of fractions can be changed later with {@link 
@@ -0,0 +1,361 @@
+package katae.fractions;
+
+import katae.calculators.NTFC;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable sequence of fractions stored as two parallel arrays of
+ * <code>long</code>, one for numerators and one for denominators. Compared to
+ * a <code>List&lt;Fraction&gt;</code>, this saves an object header and a
+ * reference per element, and bulk operations run over contiguous memory
+ * without chasing pointers. Denominators are always positive, but elements
+ * produced by {@link #plus(Fraction)}, {@link #times(Fraction)} and the like
+ * are not necessarily in lowest terms until {@link #reduceAll()} is called.
+ * Elements read out with {@link #get(int)} or {@link #toList()} are always in
+ * lowest terms.
+ * @author Alonso del Arte
+ */
+public final class FractionVector {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] numers;
+    private long[] denoms;
+    private int count;
+
+    /**
+     * Gives the number of fractions in this vector.
+     * @return The number of fractions. For example, 3 for a vector holding
+     * 1/2, 1/3 and 1/24.
+     */
+    public int size() {
+        return this.count;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.count) {
+            throw new IndexOutOfBoundsException("Index " + index
+                    + " is out of bounds for size " + this.count);
+        }
+    }
+
+    private void checkSameSize(FractionVector other) {
+        if (other.count != this.count) {
+            throw new IllegalArgumentException("Vector of size " + other.count
+                    + " does not match size " + this.count);
+        }
+    }
+
+    /**
+     * Gives the numerator of one of the fractions, as stored.
+     * @param index The position of the fraction, starting at 0.
+     * @return The numerator, which might not be in lowest terms.
+     * @throws IndexOutOfBoundsException If <code>index</code> is negative or
+     * not less than the size of this vector.
+     */
+    public long getNumerator(int index) {
+        this.checkIndex(index);
+        return this.numers[index];
+    }
+
+    /**
+     * Gives the denominator of one of the fractions, as stored.
+     * @param index The position of the fraction, starting at 0.
+     * @return The denominator, which is always positive but might not be in
+     * lowest terms.
+     * @throws IndexOutOfBoundsException If <code>index</code> is negative or
+     * not less than the size of this vector.
+     */
+    public long getDenominator(int index) {
+        this.checkIndex(index);
+        return this.denoms[index];
+    }
+
+    /**
+     * Gives one of the fractions.
+     * @param index The position of the fraction, starting at 0.
+     * @return The fraction, in lowest terms.
+     * @throws IndexOutOfBoundsException If <code>index</code> is negative or
+     * not less than the size of this vector.
+     */
+    public Fraction get(int index) {
+        this.checkIndex(index);
+        return Fraction.valueOf(this.numers[index], this.denoms[index]);
+    }
+
+    /**
+     * Replaces one of the fractions.
+     * @param index The position of the fraction, starting at 0.
+     * @param fraction The replacement. For example, 1/3.
+     * @throws IndexOutOfBoundsException If <code>index</code> is negative or
+     * not less than the size of this vector.
+     */
+    public void set(int index, Fraction fraction) {
+        this.checkIndex(index);
+        this.numers[index] = fraction.getNumerator();
+        this.denoms[index] = fraction.getDenominator();
+    }
+
+    /**
+     * Appends a fraction to the end of this vector, growing the arrays if
+     * needed.
+     * @param fraction The fraction to append. For example, 1/24.
+     */
+    public void add(Fraction fraction) {
+        if (this.count == this.numers.length) {
+            int newCapacity = Math.max(DEFAULT_CAPACITY, this.count * 2);
+            this.numers = Arrays.copyOf(this.numers, newCapacity);
+            this.denoms = Arrays.copyOf(this.denoms, newCapacity);
+        }
+        this.numers[this.count] = fraction.getNumerator();
+        this.denoms[this.count] = fraction.getDenominator();
+        this.count++;
+    }
+
+    /**
+     * Gives the least common denominator of the fractions in this vector, as
+     * stored.
+     * @return The least common multiple of the denominators. For example, 24
+     * for a vector holding 1/2, 1/3 and 1/24. The least common denominator of
+     * an empty vector is 1.
+     * @throws FractionOverflowException If the least common denominator is
+     * too large for a <code>long</code>.
+     */
+    public long commonDenominator() {
+        try {
+            return NTFC.lcm(this.denoms, 0, this.count);
+        } catch (ArithmeticException ae) {
+            throw new FractionOverflowException("Least common denominator of "
+                    + this.count + " fractions is too large: "
+                    + ae.getMessage());
+        }
+    }
+
+    /**
+     * Adds up all the fractions in this vector. If the least common
+     * denominator fits in a <code>long</code>, the numerators are scaled up
+     * to it and added in one pass, with a single reduction at the end.
+     * Otherwise, a running sum is kept, which is only reduced when leaving it
+     * unreduced would overflow.
+     * @return The sum, in lowest terms. For example, 7/8 for a vector holding
+     * 1/2, 1/4 and 1/8. The sum of an empty vector is 0.
+     * @throws FractionOverflowException If the sum can't be represented even
+     * in lowest terms.
+     */
+    public Fraction sum() {
+        try {
+            long lcd = NTFC.lcm(this.denoms, 0, this.count);
+            long numer = 0;
+            for (int i = 0; i < this.count; i++) {
+                numer = Math.addExact(numer, Math.multiplyExact(this.numers[i],
+                        lcd / this.denoms[i]));
+            }
+            return Fraction.valueOf(numer, lcd);
+        } catch (ArithmeticException ae) {
+            // Fall back on the running sum, which reduces as it goes
+        }
+        MutableFraction accumulator = new MutableFraction();
+        for (int i = 0; i < this.count; i++) {
+            accumulator.accumulate(this.numers[i], this.denoms[i], false);
+        }
+        return accumulator.toFraction();
+    }
+
+    /**
+     * Puts every fraction in this vector in lowest terms.
+     */
+    public void reduceAll() {
+        long gcd;
+        for (int i = 0; i < this.count; i++) {
+            gcd = NTFC.binaryGCD(this.numers[i], this.denoms[i]);
+            if (gcd > 1) {
+                this.numers[i] /= gcd;
+                this.denoms[i] /= gcd;
+            }
+        }
+    }
+
+    private static int compare(long numerA, long denomA, long numerB,
+            long denomB) {
+        return Int128.compare(Math.multiplyHigh(numerA, denomB),
+                numerA * denomB, Math.multiplyHigh(numerB, denomA),
+                numerB * denomA);
+    }
+
+    /**
+     * Sorts the fractions in this vector in ascending order. This is a stable
+     * merge sort on the two arrays together, with exact 128-bit comparisons,
+     * so no Fraction objects are created.
+     */
+    public void sortInPlace() {
+        long[] srcNumers = this.numers;
+        long[] srcDenoms = this.denoms;
+        long[] destNumers = new long[this.count];
+        long[] destDenoms = new long[this.count];
+        for (int width = 1; width < this.count; width *= 2) {
+            for (int lo = 0; lo < this.count; lo += 2 * width) {
+                int mid = Math.min(lo + width, this.count);
+                int hi = Math.min(lo + 2 * width, this.count);
+                int left = lo;
+                int right = mid;
+                for (int dest = lo; dest < hi; dest++) {
+                    if (right >= hi || (left < mid && compare(srcNumers[left],
+                            srcDenoms[left], srcNumers[right],
+                            srcDenoms[right]) <= 0)) {
+                        destNumers[dest] = srcNumers[left];
+                        destDenoms[dest] = srcDenoms[left];
+                        left++;
+                    } else {
+                        destNumers[dest] = srcNumers[right];
+                        destDenoms[dest] = srcDenoms[right];
+                        right++;
+                    }
+                }
+            }
+            long[] swapNumers = srcNumers;
+            long[] swapDenoms = srcDenoms;
+            srcNumers = destNumers;
+            srcDenoms = destDenoms;
+            destNumers = swapNumers;
+            destDenoms = swapDenoms;
+        }
+        if (srcNumers != this.numers) {
+            System.arraycopy(srcNumers, 0, this.numers, 0, this.count);
+            System.arraycopy(srcDenoms, 0, this.denoms, 0, this.count);
+        }
+    }
+
+    private FractionVector combine(long[] otherNumers, long[] otherDenoms,
+            long scalarNumer, long scalarDenom, boolean multiply) {
+        FractionVector result = new FractionVector(this.count);
+        MutableFraction scratch = new MutableFraction();
+        long numerB = scalarNumer;
+        long denomB = scalarDenom;
+        for (int i = 0; i < this.count; i++) {
+            if (otherNumers != null) {
+                numerB = otherNumers[i];
+                denomB = otherDenoms[i];
+            }
+            scratch.setUnreduced(this.numers[i], this.denoms[i]);
+            if (multiply) {
+                scratch.scale(numerB, denomB);
+            } else {
+                scratch.accumulate(numerB, denomB, false);
+            }
+            result.numers[i] = scratch.getNumerator();
+            result.denoms[i] = scratch.getDenominator();
+        }
+        result.count = this.count;
+        return result;
+    }
+
+    /**
+     * Adds another vector to this one element by element.
+     * @param addend The vector to add. Must be the same size as this vector.
+     * @return A new vector with the sums. This vector is not changed.
+     * @throws IllegalArgumentException If the sizes don't match.
+     */
+    public FractionVector plus(FractionVector addend) {
+        this.checkSameSize(addend);
+        return this.combine(addend.numers, addend.denoms, 0, 1, false);
+    }
+
+    /**
+     * Adds a fraction to every element of this vector.
+     * @param addend The fraction to add. For example, 1/2.
+     * @return A new vector with the sums. This vector is not changed.
+     */
+    public FractionVector plus(Fraction addend) {
+        return this.combine(null, null, addend.getNumerator(),
+                addend.getDenominator(), false);
+    }
+
+    /**
+     * Multiplies this vector by another element by element.
+     * @param multiplicand The vector to multiply by. Must be the same size as
+     * this vector.
+     * @return A new vector with the products. This vector is not changed.
+     * @throws IllegalArgumentException If the sizes don't match.
+     */
+    public FractionVector times(FractionVector multiplicand) {
+        this.checkSameSize(multiplicand);
+        return this.combine(multiplicand.numers, multiplicand.denoms, 1, 1,
+                true);
+    }
+
+    /**
+     * Multiplies every element of this vector by a fraction.
+     * @param multiplicand The fraction to multiply by. For example, 2/3.
+     * @return A new vector with the products. This vector is not changed.
+     */
+    public FractionVector times(Fraction multiplicand) {
+        return this.combine(null, null, multiplicand.getNumerator(),
+                multiplicand.getDenominator(), true);
+    }
+
+    /**
+     * Gives the fractions in this vector as a list.
+     * @return A new list of fractions in lowest terms, in the same order as in
+     * this vector.
+     */
+    public ArrayList<Fraction> toList() {
+        ArrayList<Fraction> list = new ArrayList<>(this.count);
+        for (int i = 0; i < this.count; i++) {
+            list.add(Fraction.valueOf(this.numers[i], this.denoms[i]));
+        }
+        return list;
+    }
+
+    /**
+     * Gives a representation of this vector as a String.
+     * @return The fractions in lowest terms, in square brackets and separated
+     * by commas, the same as for a list of fractions. For example, "[1/2, 1/3,
+     * 1/24]".
+     */
+    @Override
+    public String toString() {
+        return this.toList().toString();
+    }
+
+    /**
+     * Gives a vector holding the given fractions.
+     * @param fractions The fractions. For example, 1/2, 1/3, 1/24.
+     * @return A new vector with the fractions in the same order.
+     */
+    public static FractionVector of(Fraction... fractions) {
+        FractionVector vector = new FractionVector(fractions.length);
+        for (Fraction fraction : fractions) {
+            vector.add(fraction);
+        }
+        return vector;
+    }
+
+    /**
+     * Constructs an empty vector.
+     * @param initialCapacity How many fractions to make room for initially.
+     * The vector grows as needed regardless.
+     */
+    public FractionVector(int initialCapacity) {
+        this.numers = new long[initialCapacity];
+        this.denoms = new long[initialCapacity];
+        this.count = 0;
+    }
+
+    /**
+     * Constructs a vector from a list of fractions, such as one returned by
+     * {@link katae.calculators.FractionsCalculator}.
+     * @param fractions The fractions. For example, 1/2, 1/3, 1/24.
+     */
+    public FractionVector(List<Fraction> fractions) {
+        this(fractions.size());
+        for (Fraction fraction : fractions) {
+            this.numers[this.count] = fraction.getNumerator();
+            this.denoms[this.count] = fraction.getDenominator();
+            this.count++;
+        }
+    }
+
+}
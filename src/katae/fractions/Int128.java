@@ -0,0 +1,169 @@
+package katae.fractions;
+
+/**
+ * Helpers for 128-bit intermediate results, each one held as a pair of
+ * <code>long</code> values (the high word and the low word). These are used by
+ * {@link Fraction} so that products like numerator times denominator can be
+ * computed exactly without having to resort to {@link java.math.BigInteger}.
+ * The high word is signed, the low word is to be read as unsigned.
+ * @author Alonso del Arte
+ */
+final class Int128 {
+
+    private static final long HALF_WORD_BASE = 1L << 32;
+
+    private static final long HALF_WORD_MASK = 0xFFFFFFFFL;
+
+    private static final String QUOTIENT_OVERFLOW_MESSAGE
+            = "The quotient is outside the range of long";
+
+    /**
+     * Tells whether a 128-bit value fits in a signed 64-bit <code>long</code>.
+     * @param high The high word of the value.
+     * @param low The low word of the value.
+     * @return True if the high word is just the sign extension of the low word,
+     * false otherwise.
+     */
+    static boolean fitsInLong(long high, long low) {
+        return high == (low >> 63);
+    }
+
+    /**
+     * Multiplies two signed <code>long</code> values, throwing an exception if
+     * the product does not fit in a <code>long</code>.
+     * @param a One of the two factors. For example, 3037000500.
+     * @param b One of the two factors. For example, &minus;3037000500.
+     * @return The product. For example, &minus;9223372037000250000 would not
+     * fit, so the example parameters would cause an exception.
+     * @throws FractionOverflowException If the product can't be represented as
+     * a <code>long</code>.
+     */
+    static long multiplyExact(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if (!fitsInLong(high, low)) {
+            throw new FractionOverflowException("The product of " + a + " and "
+                    + b + " is outside the range of long");
+        }
+        return low;
+    }
+
+    /**
+     * Compares two 128-bit signed values.
+     * @param aHigh The high word of the first value.
+     * @param aLow The low word of the first value.
+     * @param bHigh The high word of the second value.
+     * @param bLow The low word of the second value.
+     * @return A negative number if the first value is less than the second, 0
+     * if they are equal, a positive number if the first value is greater.
+     */
+    static int compare(long aHigh, long aLow, long bHigh, long bLow) {
+        if (aHigh != bHigh) {
+            return Long.compare(aHigh, bHigh);
+        }
+        return Long.compareUnsigned(aLow, bLow);
+    }
+
+    /**
+     * Divides a 128-bit unsigned value by a 64-bit unsigned value. This is
+     * Knuth's algorithm D specialized to two-digit divisors, as presented in
+     * Warren's <i>Hacker's Delight</i> (divlu), using 32-bit "digits."
+     * @param high The high word of the dividend. Must be less than the divisor
+     * (as unsigned values), otherwise the quotient would not fit in 64 bits.
+     * @param low The low word of the dividend.
+     * @param divisor The divisor. Must not be 0.
+     * @return The quotient, to be read as an unsigned value. The remainder can
+     * be obtained as <code>low - quotient * divisor</code>.
+     */
+    static long divideUnsigned(long high, long low, long divisor) {
+        int shift = Long.numberOfLeadingZeros(divisor);
+        long v = divisor << shift;
+        long vHigh = v >>> 32;
+        long vLow = v & HALF_WORD_MASK;
+        long un32 = (shift == 0) ? high : (high << shift) | (low >>> (64 - shift));
+        long un10 = low << shift;
+        long un1 = un10 >>> 32;
+        long un0 = un10 & HALF_WORD_MASK;
+        long q1 = Long.divideUnsigned(un32, vHigh);
+        long rHat = un32 - q1 * vHigh;
+        while (Long.compareUnsigned(q1, HALF_WORD_BASE) >= 0
+                || Long.compareUnsigned(q1 * vLow, (rHat << 32) + un1) > 0) {
+            q1--;
+            rHat += vHigh;
+            if (Long.compareUnsigned(rHat, HALF_WORD_BASE) >= 0) {
+                break;
+            }
+        }
+        long un21 = (un32 << 32) + un1 - q1 * v;
+        long q0 = Long.divideUnsigned(un21, vHigh);
+        rHat = un21 - q0 * vHigh;
+        while (Long.compareUnsigned(q0, HALF_WORD_BASE) >= 0
+                || Long.compareUnsigned(q0 * vLow, (rHat << 32) + un0) > 0) {
+            q0--;
+            rHat += vHigh;
+            if (Long.compareUnsigned(rHat, HALF_WORD_BASE) >= 0) {
+                break;
+            }
+        }
+        return (q1 << 32) + q0;
+    }
+
+    /**
+     * Gives the remainder of the absolute value of a 128-bit signed value
+     * divided by a positive <code>long</code>.
+     * @param high The high word of the dividend.
+     * @param low The low word of the dividend.
+     * @param divisor The divisor. Must be positive.
+     * @return The remainder, which is at least 0 but less than the divisor.
+     */
+    static long remainderOfAbs(long high, long low, long divisor) {
+        if (high < 0) {
+            low = -low;
+            high = ~high + (low == 0 ? 1 : 0);
+        }
+        long reducedHigh = Long.remainderUnsigned(high, divisor);
+        long quotient = divideUnsigned(reducedHigh, low, divisor);
+        return low - quotient * divisor;
+    }
+
+    /**
+     * Divides a 128-bit signed value by a positive <code>long</code>, provided
+     * the quotient fits in a <code>long</code>. The division is expected to be
+     * exact, as is the case when dividing out a common factor, but that is not
+     * checked.
+     * @param high The high word of the dividend.
+     * @param low The low word of the dividend.
+     * @param divisor The divisor. Must be positive.
+     * @return The quotient, truncated towards 0.
+     * @throws FractionOverflowException If the quotient does not fit in a
+     * <code>long</code>.
+     */
+    static long divideToLong(long high, long low, long divisor) {
+        if (divisor == 1) {
+            if (!fitsInLong(high, low)) {
+                throw new FractionOverflowException(QUOTIENT_OVERFLOW_MESSAGE);
+            }
+            return low;
+        }
+        boolean negative = high < 0;
+        long absHigh = high;
+        long absLow = low;
+        if (negative) {
+            absLow = -low;
+            absHigh = ~high + (absLow == 0 ? 1 : 0);
+        }
+        if (Long.compareUnsigned(absHigh, divisor) >= 0) {
+            throw new FractionOverflowException(QUOTIENT_OVERFLOW_MESSAGE);
+        }
+        long quotient = divideUnsigned(absHigh, absLow, divisor);
+        if (quotient < 0 && !(negative && quotient == Long.MIN_VALUE)) {
+            throw new FractionOverflowException(QUOTIENT_OVERFLOW_MESSAGE);
+        }
+        return negative ? -quotient : quotient;
+    }
+
+    private Int128() {
+        // Prevent instantiation
+    }
+
+}
@@ -0,0 +1,317 @@
+package katae.fractions;
+
+import katae.calculators.NTFC;
+
+/**
+ * An accumulator for running sums, differences and products of fractions.
+ * Unlike {@link Fraction}, which creates a new object for every result, this
+ * class updates its numerator and denominator in place. To save on GCD
+ * computations, the numerator and denominator are not kept in lowest terms;
+ * they are only reduced when {@link #reduce()} is called, when a snapshot is
+ * taken with {@link #toFraction()}, or when leaving them unreduced would
+ * overflow <code>long</code>. The denominator is always kept positive.
+ * <p>Since instances are mutable, this class does not override
+ * <code>equals()</code> or <code>hashCode()</code>. Use {@link
+ * #compareTo(Fraction)} or {@link #toFraction()} to compare values.</p>
+ * @author Alonso del Arte
+ */
+public final class MutableFraction {
+
+    private long numer;
+    private long denom;
+
+    /**
+     * Gives the current numerator, which might not be in lowest terms.
+     * @return The numerator. For example, if this accumulator holds 1/2 plus
+     * 1/4, this might be 6 rather than 3.
+     */
+    public long getNumerator() {
+        return this.numer;
+    }
+
+    /**
+     * Gives the current denominator, which might not be in lowest terms.
+     * @return The denominator, always positive. For example, if this
+     * accumulator holds 1/2 plus 1/4, this might be 8 rather than 4.
+     */
+    public long getDenominator() {
+        return this.denom;
+    }
+
+    private static boolean sumOverflows(long a, long b, long sum) {
+        return ((a ^ sum) & (b ^ sum)) < 0;
+    }
+
+    private static boolean differenceOverflows(long a, long b, long diff) {
+        return ((a ^ b) & (a ^ diff)) < 0;
+    }
+
+    private void setFromFraction(Fraction fraction) {
+        this.numer = fraction.getNumerator();
+        this.denom = fraction.getDenominator();
+    }
+
+    /**
+     * Adds or subtracts over a common denominator, without reducing.
+     * @param gcd A common divisor of the two denominators. The sum or
+     * difference is taken over the product of the denominators divided by
+     * this number.
+     * @return True if the result fits in <code>long</code>, in which case it
+     * has been stored, false if it doesn't, in which case nothing has
+     * changed.
+     */
+    private boolean tryAccumulate(long numerB, long denomB, long gcd,
+            boolean subtract) {
+        long scaleA = denomB / gcd;
+        long scaleB = this.denom / gcd;
+        long crossA = this.numer * scaleA;
+        long crossB = numerB * scaleB;
+        long newDenom = this.denom * scaleA;
+        if (!Int128.fitsInLong(Math.multiplyHigh(this.numer, scaleA), crossA)
+                || !Int128.fitsInLong(Math.multiplyHigh(numerB, scaleB),
+                        crossB)
+                || Math.multiplyHigh(this.denom, scaleA) != 0
+                || newDenom <= 0) {
+            return false;
+        }
+        long result = subtract ? crossA - crossB : crossA + crossB;
+        boolean overflow = subtract
+                ? differenceOverflows(crossA, crossB, result)
+                : sumOverflows(crossA, crossB, result);
+        if (overflow) {
+            return false;
+        }
+        this.numer = result;
+        this.denom = newDenom;
+        return true;
+    }
+
+    /**
+     * Adds or subtracts without reducing. If the unreduced result would
+     * overflow, both operands are put in lowest terms in place and combined
+     * over the least common multiple of their denominators, and the result is
+     * reduced, all without creating any objects. Only if that still doesn't
+     * fit is {@link Fraction} arithmetic (which uses 128-bit intermediates)
+     * used. The denominator of the operand must be positive, but the operand
+     * need not be in lowest terms.
+     */
+    void accumulate(long numerB, long denomB, boolean subtract) {
+        long gcd = this.denom == denomB ? denomB : 1;
+        if (this.tryAccumulate(numerB, denomB, gcd, subtract)) {
+            return;
+        }
+        this.reduce();
+        gcd = NTFC.binaryGCD(numerB, denomB);
+        if (gcd > 1) {
+            numerB /= gcd;
+            denomB /= gcd;
+        }
+        if (this.tryAccumulate(numerB, denomB,
+                NTFC.binaryGCD(this.denom, denomB), subtract)) {
+            this.reduce();
+            return;
+        }
+        Fraction current = this.toFraction();
+        Fraction other = Fraction.valueOf(numerB, denomB);
+        this.setFromFraction(subtract ? current.minus(other)
+                : current.plus(other));
+    }
+
+    /**
+     * Adds a fraction to this accumulator.
+     * @param addend The fraction to add. For example, 1/3.
+     * @return This accumulator, to allow chaining.
+     * @throws FractionOverflowException If the sum can't be represented even
+     * in lowest terms.
+     */
+    public MutableFraction addInPlace(Fraction addend) {
+        this.accumulate(addend.getNumerator(), addend.getDenominator(), false);
+        return this;
+    }
+
+    /**
+     * Adds an integer to this accumulator.
+     * @param addend The integer to add. For example, 1.
+     * @return This accumulator, to allow chaining.
+     * @throws FractionOverflowException If the sum can't be represented even
+     * in lowest terms.
+     */
+    public MutableFraction addInPlace(long addend) {
+        this.accumulate(addend, 1, false);
+        return this;
+    }
+
+    /**
+     * Subtracts a fraction from this accumulator.
+     * @param subtrahend The fraction to subtract. For example, 1/3.
+     * @return This accumulator, to allow chaining.
+     * @throws FractionOverflowException If the difference can't be represented
+     * even in lowest terms.
+     */
+    public MutableFraction subtractInPlace(Fraction subtrahend) {
+        this.accumulate(subtrahend.getNumerator(), subtrahend.getDenominator(),
+                true);
+        return this;
+    }
+
+    /**
+     * Subtracts an integer from this accumulator.
+     * @param subtrahend The integer to subtract. For example, 1.
+     * @return This accumulator, to allow chaining.
+     * @throws FractionOverflowException If the difference can't be represented
+     * even in lowest terms.
+     */
+    public MutableFraction subtractInPlace(long subtrahend) {
+        this.accumulate(subtrahend, 1, true);
+        return this;
+    }
+
+    /**
+     * Multiplies this accumulator by a fraction.
+     * @param multiplicand The fraction to multiply by. For example, 1/3.
+     * @return This accumulator, to allow chaining.
+     * @throws FractionOverflowException If the product can't be represented
+     * even in lowest terms.
+     */
+    public MutableFraction multiplyInPlace(Fraction multiplicand) {
+        this.scale(multiplicand.getNumerator(), multiplicand.getDenominator());
+        return this;
+    }
+
+    /**
+     * Multiplies this accumulator by an integer.
+     * @param multiplicand The integer to multiply by. For example, 3.
+     * @return This accumulator, to allow chaining.
+     * @throws FractionOverflowException If the product can't be represented
+     * even in lowest terms.
+     */
+    public MutableFraction multiplyInPlace(long multiplicand) {
+        this.scale(multiplicand, 1);
+        return this;
+    }
+
+    /**
+     * Puts the numerator and denominator in lowest terms.
+     * @return This accumulator, to allow chaining.
+     */
+    public MutableFraction reduce() {
+        long gcd = NTFC.binaryGCD(this.numer, this.denom);
+        if (gcd > 1) {
+            this.numer /= gcd;
+            this.denom /= gcd;
+        }
+        return this;
+    }
+
+    /**
+     * Replaces the value of this accumulator with a numerator and denominator
+     * that might not be in lowest terms.
+     * @param numerator The new numerator.
+     * @param denominator The new denominator. Must be positive.
+     */
+    void setUnreduced(long numerator, long denominator) {
+        this.numer = numerator;
+        this.denom = denominator;
+    }
+
+    /**
+     * Multiplies by a numerator and denominator that might not be in lowest
+     * terms, without reducing unless the product would overflow.
+     * @param numerB The numerator to multiply by.
+     * @param denomB The denominator to multiply by. Must be positive.
+     */
+    void scale(long numerB, long denomB) {
+        long newNumer = this.numer * numerB;
+        long newDenom = this.denom * denomB;
+        if (Int128.fitsInLong(Math.multiplyHigh(this.numer, numerB), newNumer)
+                && Math.multiplyHigh(this.denom, denomB) == 0
+                && newDenom > 0) {
+            this.numer = newNumer;
+            this.denom = newDenom;
+        } else {
+            this.setFromFraction(this.toFraction()
+                    .times(Fraction.valueOf(numerB, denomB)));
+        }
+    }
+
+    /**
+     * Replaces the value of this accumulator.
+     * @param fraction The new value. For example, 7/8.
+     * @return This accumulator, to allow chaining.
+     */
+    public MutableFraction set(Fraction fraction) {
+        this.setFromFraction(fraction);
+        return this;
+    }
+
+    /**
+     * Gives the sign of the value held by this accumulator.
+     * @return &minus;1 if negative, 0 if zero, 1 if positive.
+     */
+    public int signum() {
+        return Long.signum(this.numer);
+    }
+
+    /**
+     * Compares the value held by this accumulator to a fraction, without
+     * reducing and without creating any objects.
+     * @param other The fraction to compare to. For example, 1/3.
+     * @return A negative number if this accumulator holds a value less than
+     * <code>other</code>, 0 if equal, a positive number if greater.
+     */
+    public int compareTo(Fraction other) {
+        long otherNumer = other.getNumerator();
+        long otherDenom = other.getDenominator();
+        return Int128.compare(Math.multiplyHigh(this.numer, otherDenom),
+                this.numer * otherDenom,
+                Math.multiplyHigh(otherNumer, this.denom),
+                otherNumer * this.denom);
+    }
+
+    /**
+     * Gives a numerical approximation of the value held by this accumulator.
+     * @return The approximation. For example, 0.75 if this accumulator holds
+     * 6/8.
+     */
+    public double getNumericApproximation() {
+        return (double) this.numer / (double) this.denom;
+    }
+
+    /**
+     * Gives a snapshot of the value held by this accumulator as an immutable
+     * fraction. Later changes to this accumulator do not affect the snapshot.
+     * @return A {@link Fraction} in lowest terms. For example, 3/4 if this
+     * accumulator holds 6/8.
+     */
+    public Fraction toFraction() {
+        return Fraction.valueOf(this.numer, this.denom);
+    }
+
+    /**
+     * Gives a representation of the value held by this accumulator, in lowest
+     * terms, in the same format as {@link Fraction#toString()}.
+     * @return A String. For example, "3/4" if this accumulator holds 6/8.
+     */
+    @Override
+    public String toString() {
+        return this.toFraction().toString();
+    }
+
+    /**
+     * Constructs an accumulator holding 0.
+     */
+    public MutableFraction() {
+        this.numer = 0;
+        this.denom = 1;
+    }
+
+    /**
+     * Constructs an accumulator holding the given fraction.
+     * @param fraction The initial value. For example, 7/8.
+     */
+    public MutableFraction(Fraction fraction) {
+        this.numer = fraction.getNumerator();
+        this.denom = fraction.getDenominator();
+    }
+
+}
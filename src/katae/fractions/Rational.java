@@ -0,0 +1,93 @@
+package katae.fractions;
+
+/**
+ * A rational number, regardless of how the numerator and denominator are
+ * stored. {@link Fraction} keeps them as <code>long</code>, which is fast but
+ * limited, while {@link BigFraction} keeps them as {@link
+ * java.math.BigInteger}. Operations through this interface stay on the
+ * <code>long</code> path for as long as the results fit, switch to
+ * <code>BigFraction</code> when they don't, and switch back to
+ * <code>Fraction</code> when a result fits again.
+ * @author Alonso del Arte
+ */
+public interface Rational {
+
+    /**
+     * Adds a rational number to this one.
+     * @param addend The number to add. For example, 1/3.
+     * @return The sum. For example, if this number is 7/8, the result is
+     * 29/24.
+     */
+    Rational plus(Rational addend);
+
+    /**
+     * Subtracts a rational number from this one.
+     * @param subtrahend The number to subtract. For example, 1/3.
+     * @return The difference. For example, if this number is 7/8, the result
+     * is 13/24.
+     */
+    Rational minus(Rational subtrahend);
+
+    /**
+     * Multiplies this rational number by another.
+     * @param multiplicand The number to multiply by. For example, 1/3.
+     * @return The product. For example, if this number is 7/8, the result is
+     * 7/24.
+     */
+    Rational times(Rational multiplicand);
+
+    /**
+     * Divides this rational number by another.
+     * @param divisor The number to divide by. For example, 1/3.
+     * @return The quotient. For example, if this number is 7/8, the result is
+     * 21/8.
+     * @throws IllegalArgumentException If <code>divisor</code> is 0.
+     */
+    Rational divides(Rational divisor);
+
+    /**
+     * Gives the additive inverse of this rational number.
+     * @return This number multiplied by &minus;1. For example, if this number
+     * is 7/8, the result is &minus;7/8.
+     */
+    Rational negate();
+
+    /**
+     * Gives the multiplicative inverse of this rational number.
+     * @return 1 divided by this number. For example, if this number is 7/8,
+     * the result is 8/7.
+     * @throws IllegalArgumentException If this number is 0.
+     */
+    Rational reciprocal();
+
+    /**
+     * Compares this rational number to another, regardless of how each one is
+     * stored.
+     * @param other The number to compare to. For example, 1/3.
+     * @return A negative number if this number is less than the other, 0 if
+     * they are equal, a positive number if this number is greater. For
+     * example, if this number is 7/8, the result is a positive number.
+     */
+    int compareTo(Rational other);
+
+    /**
+     * Tells whether this rational number is a unit fraction, that is, a
+     * fraction with numerator 1 in lowest terms.
+     * @return True if this number is 1/<i>n</i> for some positive integer
+     * <i>n</i>, false otherwise. For example, true for 1/441, false for 8/5.
+     */
+    boolean isUnitFraction();
+
+    /**
+     * Gives a numerical approximation of this rational number.
+     * @return The approximation. For example, 0.875 for 7/8.
+     */
+    double getNumericApproximation();
+
+    /**
+     * Gives this rational number as a {@link BigFraction}.
+     * @return An arbitrary-precision fraction of the same value.
+     */
+    BigFraction toBigFraction();
+
+}
@@ -0,0 +1,149 @@
+package katae.calculators;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the ArithmeticFunctionTable class. The values in the tables are
+ * checked against values computed the slow way, one number at a time.
+ * @author Alonso del Arte
+ */
+public class ArithmeticFunctionTableTest {
+
+    private static final int TEST_BOUND = 5000;
+
+    private static ArithmeticFunctionTable table;
+
+    @BeforeClass
+    public static void setUpClass() {
+        table = new ArithmeticFunctionTable(TEST_BOUND);
+    }
+
+    private static int smallestPrimeFactorByTrialDivision(int num) {
+        for (int d = 2; d * d <= num; d++) {
+            if (num % d == 0) {
+                return d;
+            }
+        }
+        return num;
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    /**
+     * Test of smallestPrimeFactor method, of class ArithmeticFunctionTable.
+     */
+    @Test
+    public void testSmallestPrimeFactor() {
+        System.out.println("smallestPrimeFactor");
+        assertEquals(1, table.smallestPrimeFactor(1));
+        for (int n = 2; n <= TEST_BOUND; n++) {
+            assertEquals("Smallest prime factor of " + n, smallestPrimeFactorByTrialDivision(n), table.smallestPrimeFactor(n));
+        }
+    }
+
+    /**
+     * Test of moebiusMu, isSquareFree and radical methods, of class
+     * ArithmeticFunctionTable.
+     */
+    @Test
+    public void testMoebiusMuAndRadical() {
+        System.out.println("moebiusMu, isSquareFree, radical");
+        assertEquals(0, table.moebiusMu(0));
+        assertFalse(table.isSquareFree(0));
+        assertEquals(0, table.radical(0));
+        for (int n = 1; n <= TEST_BOUND; n++) {
+            int remaining = n;
+            int radical = 1;
+            byte mu = 1;
+            while (remaining > 1) {
+                int p = smallestPrimeFactorByTrialDivision(remaining);
+                radical *= p;
+                mu *= -1;
+                remaining /= p;
+                if (remaining % p == 0) {
+                    mu = 0;
+                    while (remaining % p == 0) {
+                        remaining /= p;
+                    }
+                }
+            }
+            assertEquals("mu(" + n + ")", mu, table.moebiusMu(n));
+            assertEquals("Squarefree " + n, mu != 0, table.isSquareFree(n));
+            assertEquals("Radical of " + n, radical, table.radical(n));
+        }
+    }
+
+    /**
+     * Test of divisorCount and eulerPhi methods, of class
+     * ArithmeticFunctionTable.
+     */
+    @Test
+    public void testDivisorCountAndEulerPhi() {
+        System.out.println("divisorCount, eulerPhi");
+        for (int n = 1; n <= TEST_BOUND; n++) {
+            int divisorCount = 0;
+            int totient = 0;
+            for (int k = 1; k <= n; k++) {
+                if (n % k == 0) {
+                    divisorCount++;
+                }
+                if (gcd(n, k) == 1) {
+                    totient++;
+                }
+            }
+            assertEquals("Number of divisors of " + n, divisorCount, table.divisorCount(n));
+            assertEquals("phi(" + n + ")", totient, table.eulerPhi(n));
+        }
+    }
+
+    /**
+     * Test of the array functions, of class ArithmeticFunctionTable. They
+     * should give copies that match the per-number functions.
+     */
+    @Test
+    public void testArrays() {
+        System.out.println("Arrays");
+        int[] spfs = table.smallestPrimeFactors();
+        byte[] mus = table.moebiusValues();
+        boolean[] flags = table.squareFreeFlags();
+        int[] radicals = table.radicals();
+        int[] divisorCounts = table.divisorCounts();
+        int[] totients = table.totients();
+        assertEquals(TEST_BOUND + 1, spfs.length);
+        for (int n = 0; n <= TEST_BOUND; n++) {
+            assertEquals(table.smallestPrimeFactor(n), spfs[n]);
+            assertEquals(table.moebiusMu(n), mus[n]);
+            assertEquals(table.isSquareFree(n), flags[n]);
+            assertEquals(table.radical(n), radicals[n]);
+            assertEquals(table.divisorCount(n), divisorCounts[n]);
+            assertEquals(table.eulerPhi(n), totients[n]);
+        }
+        spfs[12] = 3;
+        assertEquals(2, table.smallestPrimeFactor(12));
+    }
+
+    /**
+     * Test of bounds checking, of class ArithmeticFunctionTable.
+     */
+    @Test
+    public void testOutOfRangeCausesException() {
+        try {
+            int result = table.radical(TEST_BOUND + 1);
+            fail("Number beyond bound should have caused an exception, not given " + result);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+        try {
+            int result = table.eulerPhi(-1);
+            fail("Negative number should have caused an exception, not given " + result);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+package katae.calculators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the FactorizationCache class.
+ * @author Alonso del Arte
+ */
+public class FactorizationCacheTest {
+
+    private static final long LARGE_SEMIPRIME = 998244359987710471L;
+
+    /**
+     * Test of primeFactors method, of class FactorizationCache. The second
+     * lookup of the same number should be a hit and give the same object.
+     */
+    @Test
+    public void testPrimeFactors() {
+        System.out.println("primeFactors");
+        FactorizationCache cache = new FactorizationCache(100);
+        Factorization factorization = cache.primeFactors(LARGE_SEMIPRIME);
+        assertArrayEquals(new long[]{998244353L, 1000000007L}, factorization.getPrimes());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertSame(factorization, cache.primeFactors(LARGE_SEMIPRIME));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.size());
+        assertEquals(NTFC.primeFactors(-44100L), cache.primeFactors(-44100L));
+        assertEquals("FactorizationCache 2/100 (1 hits, 2 misses, 0 evictions)", cache.toString());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    /**
+     * Test of eviction, of class FactorizationCache. With room for only one
+     * entry, each new number should evict the previous one.
+     */
+    @Test
+    public void testEviction() {
+        System.out.println("Eviction");
+        FactorizationCache cache = new FactorizationCache(1);
+        cache.primeFactors(LARGE_SEMIPRIME);
+        cache.primeFactors(LARGE_SEMIPRIME);
+        cache.primeFactors(4611686014132420609L);
+        assertEquals(1, cache.getEvictionCount());
+        cache.primeFactors(LARGE_SEMIPRIME);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertEquals(2, cache.getEvictionCount());
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * Another test of eviction, of class FactorizationCache. Looking up many
+     * numbers in a small cache, in random order with repetition, should always
+     * give the right factorizations, and the counters should add up.
+     */
+    @Test
+    public void testCountersAddUp() {
+        System.out.println("Counters");
+        FactorizationCache cache = new FactorizationCache(500);
+        SplittableRandom random = new SplittableRandom(44100);
+        int lookups = 20000;
+        for (int i = 0; i < lookups; i++) {
+            long num = 1000000000000L + random.nextInt(1500);
+            assertEquals(num, cache.primeFactors(num).getNumber());
+        }
+        assertEquals(lookups, cache.getHitCount() + cache.getMissCount());
+        assertEquals(500, cache.size());
+        assertEquals(cache.getMissCount() - cache.size(), cache.getEvictionCount());
+        assertTrue("There should be some hits", cache.getHitCount() > 0);
+    }
+
+    /**
+     * Test of primeFactors method, of class FactorizationCache, from several
+     * threads at once.
+     */
+    @Test
+    public void testConcurrentLookups() throws InterruptedException {
+        System.out.println("Concurrent lookups");
+        FactorizationCache cache = new FactorizationCache(256);
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final long seed = t;
+            Thread thread = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                try {
+                    for (int i = 0; i < 5000; i++) {
+                        long num = 4611686018427387904L + random.nextInt(1000);
+                        assertEquals(num, cache.primeFactors(num).getNumber());
+                    }
+                } catch (Throwable failure) {
+                    synchronized (failures) {
+                        failures.add(failure);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.toString(), failures.isEmpty());
+        assertEquals(40000, cache.getHitCount() + cache.getMissCount());
+        assertEquals(256, cache.size());
+    }
+
+    /**
+     * Test of setFactorizationCache method, of class NTFC. Once a cache is
+     * set, repeated calls to sortedDivisors should hit it.
+     */
+    @Test
+    public void testSetFactorizationCache() {
+        System.out.println("NTFC.setFactorizationCache");
+        FactorizationCache cache = new FactorizationCache();
+        NTFC.setFactorizationCache(cache);
+        try {
+            assertSame(cache, NTFC.getFactorizationCache());
+            long[] divisors = NTFC.sortedDivisors(LARGE_SEMIPRIME);
+            assertArrayEquals(divisors, NTFC.sortedDivisors(LARGE_SEMIPRIME));
+            assertEquals(1, cache.getHitCount());
+            assertEquals(1, cache.getMissCount());
+            NTFC.primeFactors(44100L); // Within the table, so not cached
+            assertEquals(1, cache.size());
+        } finally {
+            NTFC.setFactorizationCache(null);
+        }
+        assertNull(NTFC.getFactorizationCache());
+    }
+
+    /**
+     * Test of constructor, of class FactorizationCache.
+     */
+    @Test
+    public void testConstructorRejectsBadCapacity() {
+        try {
+            FactorizationCache cache = new FactorizationCache(0);
+            fail("Capacity 0 should have caused an exception, not given " + cache);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+}
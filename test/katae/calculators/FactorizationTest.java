@@ -0,0 +1,120 @@
+package katae.calculators;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the Factorization class.
+ * @author Alonso del Arte
+ */
+public class FactorizationTest {
+
+    /**
+     * Test of fromRepeatedFactors method, of class Factorization. The factors
+     * may come in any order and should be grouped with their exponents.
+     */
+    @Test
+    public void testFromRepeatedFactors() {
+        System.out.println("fromRepeatedFactors");
+        long[] factors = {7, 2, 5, 3, 7, 3, 2, 5, 0};
+        Factorization factorization = Factorization.fromRepeatedFactors(44100, factors, 8);
+        assertEquals(44100, factorization.getNumber());
+        assertEquals(4, factorization.distinctPrimeCount());
+        assertArrayEquals(new long[]{2, 3, 5, 7}, factorization.getPrimes());
+        assertArrayEquals(new int[]{2, 2, 2, 2}, factorization.getExponents());
+        assertEquals(5, factorization.getPrime(2));
+        assertEquals(2, factorization.getExponent(2));
+    }
+
+    /**
+     * Test of getPrimes method, of class Factorization. Changing the array
+     * given should not change the factorization.
+     */
+    @Test
+    public void testGetPrimesGivesCopy() {
+        Factorization factorization = NTFC.primeFactors(30L);
+        long[] primes = factorization.getPrimes();
+        primes[0] = 4;
+        assertEquals(2, factorization.getPrime(0));
+    }
+
+    /**
+     * Test of isSquareFree, radical, moebius and divisorCount methods, of
+     * class Factorization. These should agree with the arithmetic function
+     * table for all the numbers it covers.
+     */
+    @Test
+    public void testDerivedFunctions() {
+        System.out.println("isSquareFree, radical, moebius, divisorCount");
+        ArithmeticFunctionTable table = NTFC.arithmeticFunctionTable();
+        for (int n = 0; n <= 5000; n++) {
+            Factorization factorization = NTFC.primeFactors((long) -n);
+            assertEquals("Squarefree " + n, table.isSquareFree(n), factorization.isSquareFree());
+            assertEquals("Radical of " + n, table.radical(n), factorization.radical());
+            assertEquals("mu(" + n + ")", table.moebiusMu(n), factorization.moebius());
+            assertEquals("Number of divisors of " + n, table.divisorCount(n), factorization.divisorCount());
+        }
+        Factorization factorization = NTFC.primeFactors(Long.MIN_VALUE);
+        assertFalse(factorization.isSquareFree());
+        assertEquals(2, factorization.radical());
+        assertEquals(64, factorization.divisorCount());
+        factorization = NTFC.primeFactors(998244359987710471L);
+        assertTrue(factorization.isSquareFree());
+        assertEquals(998244359987710471L, factorization.radical());
+        assertEquals(1, factorization.moebius());
+        assertEquals(4, factorization.divisorCount());
+    }
+
+    /**
+     * Test of divisors method, of class Factorization.
+     */
+    @Test
+    public void testDivisors() {
+        System.out.println("divisors");
+        assertArrayEquals(new long[]{1, 2, 3, 4, 6, 12}, NTFC.primeFactors(-12L).divisors());
+        assertArrayEquals(new long[]{1}, NTFC.primeFactors(1L).divisors());
+        assertArrayEquals(new long[0], NTFC.primeFactors(0L).divisors());
+        long[] divisors = NTFC.primeFactors(44100L).divisors();
+        assertEquals(81, divisors.length);
+        assertEquals(210, divisors[40]); // The square root is the middle divisor
+        assertArrayEquals(new long[]{1, 998244353L, 1000000007L, 998244359987710471L},
+                NTFC.primeFactors(998244359987710471L).divisors());
+        try {
+            long[] result = NTFC.primeFactors(Long.MIN_VALUE).divisors();
+            fail("Divisors of Long.MIN_VALUE should have caused an exception, not given " + result.length);
+        } catch (ArithmeticException ae) {
+            System.out.println("\"" + ae.getMessage() + "\"");
+        }
+    }
+
+    /**
+     * Test of toString method, of class Factorization.
+     */
+    @Test
+    public void testToString() {
+        System.out.println("toString");
+        assertEquals("-1 * 2^2 * 3^2 * 5^2 * 7^2", NTFC.primeFactors(-44100L).toString());
+        assertEquals("1151", NTFC.primeFactors(1151L).toString());
+        assertEquals("2^3 * 3", NTFC.primeFactors(24L).toString());
+        assertEquals("0", NTFC.primeFactors(0L).toString());
+        assertEquals("1", NTFC.primeFactors(1L).toString());
+        assertEquals("-1", NTFC.primeFactors(-1L).toString());
+    }
+
+    /**
+     * Test of equals method, of class Factorization.
+     */
+    @Test
+    public void testEquals() {
+        System.out.println("equals");
+        Factorization someFactorization = NTFC.primeFactors(44100L);
+        Factorization sameFactorization = NTFC.primeFactors(44100L);
+        assertEquals(someFactorization, sameFactorization);
+        assertEquals(someFactorization.hashCode(), sameFactorization.hashCode());
+        assertNotEquals(someFactorization, NTFC.primeFactors(-44100L));
+        assertNotEquals(someFactorization, null);
+        assertNotEquals(someFactorization, Long.valueOf(44100));
+    }
+
+}
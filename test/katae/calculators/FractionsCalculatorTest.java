@@ -5,9 +5,17 @@
  */
 package katae.calculators;
 
+import katae.fractions.BigFraction;
 import katae.fractions.Fraction;
+import katae.fractions.FractionVector;
+import katae.fractions.Rational;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
 
 import org.junit.Test;
 import static org.junit.Assert.*;
@@ -49,6 +57,119 @@ public class FractionsCalculatorTest {
         assertEquals(expResult, result);
     }
 
+    /**
+     * Test of getEgyptianFractionsGreedy method, of class FractionsCalculator.
+     * Without the cap, the greedy algorithm should break down 3079/4096
+     * completely.
+     */
+    @Test
+    public void testGetEgyptianFractionsGreedy() {
+        System.out.println("getEgyptianFractionsGreedy");
+        Fraction fraction = new Fraction(3079, 4096);
+        ArrayList<Rational> expResult = new ArrayList<>();
+        expResult.add(new Fraction(1, 2));
+        expResult.add(new Fraction(1, 4));
+        expResult.add(new Fraction(1, 586));
+        expResult.add(new Fraction(1, 400043));
+        expResult.add(new Fraction(1, 480102805504L));
+        ArrayList<Rational> result = FractionsCalculator.getEgyptianFractionsGreedy(fraction);
+        assertEquals(expResult, result);
+        Rational sum = new Fraction(0);
+        for (Rational unitFract : result) {
+            assertTrue(unitFract.isUnitFraction());
+            sum = sum.plus(unitFract);
+        }
+        assertEquals(fraction, sum);
+    }
+
+    /**
+     * Test of getEgyptianFractionsGreedy method, of class FractionsCalculator.
+     * When a limit is reached, the remainder should be given at the end of
+     * the list.
+     */
+    @Test
+    public void testGetEgyptianFractionsGreedyWithLimits() {
+        Fraction fraction = new Fraction(3079, 4096);
+        ArrayList<Rational> expResult = new ArrayList<>();
+        expResult.add(new Fraction(1, 2));
+        expResult.add(new Fraction(1, 4));
+        expResult.add(new Fraction(1, 586));
+        expResult.add(new Fraction(3, 1200128));
+        assertEquals(expResult, FractionsCalculator.getEgyptianFractionsGreedy(fraction, 3, Long.MAX_VALUE));
+        assertEquals(expResult, FractionsCalculator.getEgyptianFractionsGreedy(fraction, 10, 400042));
+        ArrayList<Rational> result;
+        try {
+            result = FractionsCalculator.getEgyptianFractionsGreedy(fraction, -1, 1441);
+            fail("Negative maximum number of terms should have caused an exception, not given " + result.toString());
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+    /**
+     * Test of getEgyptianFractionsGreedy method, of class FractionsCalculator.
+     * When the remainder no longer fits in <code>long</code>, it should be
+     * promoted to BigFraction rather than left unprocessed.
+     */
+    @Test
+    public void testGetEgyptianFractionsGreedyPromotes() {
+        System.out.println("getEgyptianFractionsGreedy promotes to BigFraction");
+        Fraction fraction = new Fraction(5, 121);
+        ArrayList<Rational> expResult = new ArrayList<>();
+        expResult.add(new Fraction(1, 25));
+        expResult.add(new Fraction(1, 757));
+        expResult.add(new Fraction(1, 763309));
+        expResult.add(new Fraction(1, 873960180913L));
+        expResult.add(new BigFraction(BigInteger.ONE, new BigInteger("1527612795642093418846225")));
+        ArrayList<Rational> result = FractionsCalculator.getEgyptianFractionsGreedy(fraction);
+        assertEquals(expResult, result);
+        Rational sum = new Fraction(0);
+        for (Rational unitFract : result) {
+            assertTrue(unitFract.isUnitFraction());
+            sum = sum.plus(unitFract);
+        }
+        assertEquals(fraction, sum);
+        List<Rational> streamed = FractionsCalculator.egyptianFractionStream(fraction, FractionsCalculator.Algorithm.GREEDY).collect(Collectors.toList());
+        assertEquals(expResult, streamed);
+        result = FractionsCalculator.getEgyptianFractionsGreedy(fraction, 10, 1L << 39);
+        assertEquals(expResult.subList(0, 3), result.subList(0, 3));
+        Rational remainder = result.get(3);
+        assertFalse(remainder.isUnitFraction());
+        assertEquals(expResult.get(3).plus(expResult.get(4)), remainder);
+    }
+
+    /**
+     * Test of getEgyptianFractionsGreedy method, of class FractionsCalculator.
+     * For a fraction greater than 1, the integer part should be given first,
+     * rather than as repeated terms of 1.
+     */
+    @Test
+    public void testGetEgyptianFractionsGreedyImproper() {
+        System.out.println("getEgyptianFractionsGreedy for improper fraction");
+        Fraction fraction = new Fraction(7, 3);
+        ArrayList<Rational> expResult = new ArrayList<>();
+        expResult.add(new Fraction(2));
+        expResult.add(new Fraction(1, 3));
+        assertEquals(expResult, FractionsCalculator.getEgyptianFractionsGreedy(fraction));
+        assertEquals(expResult, FractionsCalculator.getEgyptianFractionsGreedyCapped(fraction));
+        List<Rational> streamed = FractionsCalculator.egyptianFractionStream(fraction, FractionsCalculator.Algorithm.GREEDY).collect(Collectors.toList());
+        assertEquals(expResult, streamed);
+        fraction = new Fraction(43, 8);
+        expResult.clear();
+        expResult.add(new Fraction(5));
+        expResult.add(new Fraction(1, 3));
+        expResult.add(new Fraction(1, 24));
+        assertEquals(expResult, FractionsCalculator.getEgyptianFractionsGreedy(fraction));
+        expResult.remove(2);
+        expResult.set(1, new Fraction(3, 8));
+        assertEquals(expResult, FractionsCalculator.getEgyptianFractionsGreedy(fraction, 1, Long.MAX_VALUE));
+        expResult.clear();
+        expResult.add(fraction);
+        assertEquals(expResult, FractionsCalculator.getEgyptianFractionsGreedy(fraction, 0, Long.MAX_VALUE));
+        expResult.set(0, new Fraction(3));
+        assertEquals(expResult, FractionsCalculator.getEgyptianFractionsGreedy(new Fraction(3)));
+    }
+
     /**
      * Test of getEgyptianFractionsByDenomDivisors method, of class
      * FractionsCalculator.
@@ -77,4 +198,81 @@ public class FractionsCalculatorTest {
         assertEquals(expResult, result);
     }
 
+    /**
+     * Test of egyptianFractionStream method, of class FractionsCalculator.
+     * The stream should give the same fractions as the corresponding list
+     * functions.
+     */
+    @Test
+    public void testEgyptianFractionStream() {
+        System.out.println("egyptianFractionStream");
+        for (int denom = 1; denom < 100; denom++) {
+            for (int numer = 1; numer <= denom; numer++) {
+                Fraction fraction = new Fraction(numer, denom);
+                List<Rational> expResult = new ArrayList<>(FractionsCalculator.getEgyptianFractionsGreedy(fraction));
+                List<Rational> result = FractionsCalculator.egyptianFractionStream(fraction, FractionsCalculator.Algorithm.GREEDY).collect(Collectors.toList());
+                assertEquals(expResult, result);
+                expResult = new ArrayList<>(FractionsCalculator.getEgyptianFractionsByDenomDivisors(fraction));
+                result = FractionsCalculator.egyptianFractionStream(fraction, FractionsCalculator.Algorithm.DENOM_DIVISORS).collect(Collectors.toList());
+                assertEquals(expResult, result);
+            }
+        }
+    }
+
+    /**
+     * Test of getEgyptianFractionVectorGreedyCapped and
+     * getEgyptianFractionVectorByDenomDivisors methods, of class
+     * FractionsCalculator. The vectors should hold the same fractions as the
+     * corresponding lists.
+     */
+    @Test
+    public void testGetEgyptianFractionVectors() {
+        System.out.println("getEgyptianFractionVectorGreedyCapped, getEgyptianFractionVectorByDenomDivisors");
+        for (int denom = 1; denom < 100; denom++) {
+            for (int numer = 1; numer <= 2 * denom; numer++) {
+                Fraction fraction = new Fraction(numer, denom);
+                assertEquals(FractionsCalculator.getEgyptianFractionsGreedyCapped(fraction), FractionsCalculator.getEgyptianFractionVectorGreedyCapped(fraction).toList());
+                assertEquals(FractionsCalculator.getEgyptianFractionsByDenomDivisors(fraction), FractionsCalculator.getEgyptianFractionVectorByDenomDivisors(fraction).toList());
+            }
+        }
+        FractionVector vector = FractionsCalculator.getEgyptianFractionVectorByDenomDivisors(new Fraction(3079, 4096));
+        assertEquals(new Fraction(3079, 4096), vector.sum());
+    }
+
+    /**
+     * Test of egyptianFractionStream method, of class FractionsCalculator. It
+     * should be possible to stop at a threshold.
+     */
+    @Test
+    public void testEgyptianFractionStreamTakeWhile() {
+        Fraction threshold = new Fraction(1, 1440);
+        List<Rational> result = FractionsCalculator.egyptianFractionStream(new Fraction(3079, 4096), FractionsCalculator.Algorithm.GREEDY)
+                .takeWhile(unitFract -> unitFract.compareTo(threshold) >= 0).collect(Collectors.toList());
+        List<Rational> expResult = new ArrayList<>();
+        expResult.add(new Fraction(1, 2));
+        expResult.add(new Fraction(1, 4));
+        expResult.add(new Fraction(1, 586));
+        assertEquals(expResult, result);
+    }
+
+    /**
+     * Test of egyptianFractionIterator method, of class FractionsCalculator.
+     * Asking for another fraction after the last one should cause an
+     * exception.
+     */
+    @Test
+    public void testEgyptianFractionIteratorExhausted() {
+        Iterator<Rational> iterator = FractionsCalculator.egyptianFractionIterator(new Fraction(7, 8), FractionsCalculator.Algorithm.GREEDY);
+        assertEquals(new Fraction(1, 2), iterator.next());
+        assertEquals(new Fraction(1, 3), iterator.next());
+        assertEquals(new Fraction(1, 24), iterator.next());
+        assertFalse(iterator.hasNext());
+        try {
+            Rational fraction = iterator.next();
+            fail("Exhausted iterator should have caused an exception, not given " + fraction.toString());
+        } catch (NoSuchElementException nsee) {
+            System.out.println("\"" + nsee.getMessage() + "\"");
+        }
+    }
+
 }
@@ -0,0 +1,112 @@
+package katae.calculators;
+
+import katae.calculators.HeegnerFieldTables.Splitting;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the HeegnerFieldTables class. The lookups are checked against
+ * the Kronecker symbol computed directly.
+ * @author Alonso del Arte
+ */
+public class HeegnerFieldTablesTest {
+
+    private static final int TEST_BOUND = 20000;
+
+    private static HeegnerFieldTables tables;
+
+    @BeforeClass
+    public static void setUpClass() {
+        tables = new HeegnerFieldTables(TEST_BOUND);
+    }
+
+    /**
+     * Test of getDiscriminant method, of class HeegnerFieldTables.
+     */
+    @Test
+    public void testGetDiscriminant() {
+        System.out.println("getDiscriminant");
+        assertEquals(-4, tables.getDiscriminant(-1));
+        assertEquals(-8, tables.getDiscriminant(-2));
+        assertEquals(-3, tables.getDiscriminant(-3));
+        assertEquals(-163, tables.getDiscriminant(-163));
+    }
+
+    /**
+     * Test of splitting and symbolKronecker methods, of class
+     * HeegnerFieldTables. Every prime up to the bound should agree with the
+     * Kronecker symbol of the discriminant.
+     */
+    @Test
+    public void testSplitting() {
+        System.out.println("splitting, symbolKronecker");
+        for (int d : NTFC.HEEGNER_NUMBERS) {
+            int discr = tables.getDiscriminant(d);
+            for (int p = 2; p <= TEST_BOUND; p++) {
+                if (NTFC.isPrime(p)) {
+                    byte expResult = NTFC.symbolKronecker(discr, p);
+                    assertEquals("(" + discr + "|" + p + ")", expResult, tables.symbolKronecker(d, p));
+                }
+            }
+        }
+        assertEquals(Splitting.SPLIT, tables.splitting(-7, 2));
+        assertEquals(Splitting.SPLIT, tables.splitting(-7, 11));
+        assertEquals(Splitting.RAMIFIED, tables.splitting(-7, 7));
+        assertEquals(Splitting.INERT, tables.splitting(-1, 3));
+        assertEquals(Splitting.SPLIT, tables.splitting(-1, 5));
+        assertEquals(Splitting.RAMIFIED, tables.splitting(-1, 2));
+        assertEquals(Splitting.RAMIFIED, tables.splitting(-2, 2));
+        assertEquals(Splitting.INERT, tables.splitting(-163, 2));
+        assertEquals(Splitting.SPLIT, tables.splitting(-163, 41));
+        assertEquals(Splitting.RAMIFIED, tables.splitting(-163, 163));
+    }
+
+    /**
+     * Test of splitting method, of class HeegnerFieldTables. For
+     * <b>Q</b>(&radic;&minus;163), no prime less than 41 should split, since
+     * <i>n</i><sup>2</sup> + <i>n</i> + 41 is prime for 0 &le; <i>n</i>
+     * &lt; 40.
+     */
+    @Test
+    public void testNoSmallPrimesSplitForMinus163() {
+        System.out.println("splitting for -163");
+        for (int p = 2; p < 41; p++) {
+            if (NTFC.isPrime(p)) {
+                assertEquals(Splitting.INERT, tables.splitting(-163, p));
+            }
+        }
+    }
+
+    /**
+     * Test of splitting method, of class HeegnerFieldTables, with arguments
+     * that should cause exceptions.
+     */
+    @Test
+    public void testBadArgumentsCauseExceptions() {
+        int[][] badArgs = {{-5, 3}, {-7, 9}, {-7, 1}, {-7, -11}, {-7, TEST_BOUND + 11}};
+        for (int[] args : badArgs) {
+            try {
+                Splitting result = tables.splitting(args[0], args[1]);
+                fail("Splitting of " + args[1] + " in Q(sqrt(" + args[0] + ")) should have caused an exception, not given " + result);
+            } catch (IllegalArgumentException iae) {
+                System.out.println("\"" + iae.getMessage() + "\"");
+            }
+        }
+    }
+
+    /**
+     * Test of heegnerFieldTables method, of class NTFC.
+     */
+    @Test
+    public void testSharedTables() {
+        System.out.println("NTFC.heegnerFieldTables");
+        HeegnerFieldTables shared = NTFC.heegnerFieldTables();
+        assertSame(shared, NTFC.heegnerFieldTables());
+        assertEquals(HeegnerFieldTables.DEFAULT_BOUND, shared.getBound());
+        assertEquals(Splitting.SPLIT, shared.splitting(-3, 65521));
+    }
+
+}
@@ -0,0 +1,246 @@
+package katae.calculators;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the MappedTables class. Each test works in its own temporary
+ * directory, which it deletes when done.
+ * @author Alonso del Arte
+ */
+public class MappedTablesTest {
+
+    private static final int BOUND = 200000;
+
+    private static Path tempDirectory() throws IOException {
+        return Files.createTempDirectory("mappedtables");
+    }
+
+    private static void deleteAll(Path dir) throws IOException {
+        try (java.util.stream.Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    private static void assertMatchesHeapTables(MappedTables tables) {
+        ArithmeticFunctionTable expected = new ArithmeticFunctionTable(tables.getBound());
+        PrimeSieve sieve = new PrimeSieve(tables.getBound());
+        for (int n = 0; n <= tables.getBound(); n++) {
+            assertEquals("Prime " + n, sieve.isPrime(n), tables.isPrime(n));
+            assertEquals("Smallest prime factor of " + n, expected.smallestPrimeFactor(n), tables.smallestPrimeFactor(n));
+            assertEquals("Moebius mu of " + n, expected.moebiusMu(n), tables.moebiusMu(n));
+            assertEquals("Squarefree " + n, expected.isSquareFree(n), tables.isSquareFree(n));
+        }
+    }
+
+    /**
+     * Test of open method, of class MappedTables. The first time, the file
+     * should be built, the second time it should be used as is. Asking for a
+     * smaller bound should also use the file as is, but asking for a larger
+     * bound should build it again.
+     * @throws IOException If the temporary directory can't be used.
+     */
+    @Test
+    public void testOpen() throws IOException {
+        System.out.println("open");
+        Path dir = tempDirectory();
+        try {
+            Path path = dir.resolve("tables.bin");
+            MappedTables tables = MappedTables.open(path, BOUND);
+            assertTrue(tables.isRebuilt());
+            assertEquals(BOUND, tables.getBound());
+            assertMatchesHeapTables(tables);
+            MappedTables reopened = MappedTables.open(path, BOUND);
+            assertFalse(reopened.isRebuilt());
+            assertMatchesHeapTables(reopened);
+            reopened = MappedTables.open(path, 1000);
+            assertFalse(reopened.isRebuilt());
+            assertEquals(BOUND, reopened.getBound());
+            reopened = MappedTables.open(path, BOUND + 1);
+            assertTrue(reopened.isRebuilt());
+            assertEquals(BOUND + 1, reopened.getBound());
+            assertEquals(1, tables.smallestPrimeFactor(1));
+            assertEquals(151, tables.smallestPrimeFactor(168667));
+            assertEquals(443, tables.smallestPrimeFactor(196249));
+            assertEquals(0, tables.moebiusMu(196249));
+            assertEquals(0, tables.smallestPrimeFactor(0));
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    /**
+     * Test of open method, of class MappedTables. A file cut short, as if
+     * writing it had been interrupted, should be built again.
+     * @throws IOException If the temporary directory can't be used.
+     */
+    @Test
+    public void testOpenTruncatedFile() throws IOException {
+        System.out.println("open truncated file");
+        Path dir = tempDirectory();
+        try {
+            Path path = dir.resolve("tables.bin");
+            MappedTables.open(path, BOUND);
+            long size = Files.size(path);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(size / 2);
+            }
+            MappedTables tables = MappedTables.open(path, BOUND);
+            assertTrue(tables.isRebuilt());
+            assertEquals(size, Files.size(path));
+            assertMatchesHeapTables(tables);
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    /**
+     * Test of open method, of class MappedTables. A file with a byte changed
+     * in one of the tables should fail the checksum and be built again, and
+     * so should a file that is not a table file at all.
+     * @throws IOException If the temporary directory can't be used.
+     */
+    @Test
+    public void testOpenCorruptedFile() throws IOException {
+        System.out.println("open corrupted file");
+        Path dir = tempDirectory();
+        try {
+            Path path = dir.resolve("tables.bin");
+            MappedTables.open(path, BOUND);
+            long position = Files.size(path) - 1000;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(1);
+                channel.read(buffer, position);
+                buffer.put(0, (byte) (buffer.get(0) ^ 1));
+                buffer.rewind();
+                channel.write(buffer, position);
+            }
+            MappedTables tables = MappedTables.open(path, BOUND);
+            assertTrue(tables.isRebuilt());
+            assertMatchesHeapTables(tables);
+            Files.write(path, "Not a table file".getBytes());
+            tables = MappedTables.open(path, 100);
+            assertTrue(tables.isRebuilt());
+            assertMatchesHeapTables(tables);
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    /**
+     * Test of setMappedTables method, of class NTFC. Numbers beyond the
+     * shared sieve and table but within the mapped tables should be looked
+     * up, and give the same results as without the mapped tables.
+     * @throws IOException If the temporary directory can't be used.
+     */
+    @Test
+    public void testSetMappedTables() throws IOException {
+        System.out.println("NTFC.setMappedTables");
+        Path dir = tempDirectory();
+        try {
+            MappedTables tables = MappedTables.open(dir.resolve("tables.bin"), BOUND);
+            int from = NTFC.arithmeticFunctionTable().getBound() + 1;
+            int[] samples = {from, 99991, 99997, 131071, 196249, 199999, BOUND};
+            boolean[] expectedPrime = new boolean[samples.length];
+            Factorization[] expectedFactors = new Factorization[samples.length];
+            byte[] expectedMu = new byte[samples.length];
+            for (int i = 0; i < samples.length; i++) {
+                expectedPrime[i] = NTFC.isPrime((long) samples[i]);
+                expectedFactors[i] = NTFC.primeFactors((long) -samples[i]);
+                expectedMu[i] = NTFC.moebiusMu(samples[i]);
+            }
+            NTFC.setMappedTables(tables);
+            try {
+                assertSame(tables, NTFC.getMappedTables());
+                for (int i = 0; i < samples.length; i++) {
+                    assertEquals(expectedPrime[i], NTFC.isPrime(samples[i]));
+                    assertEquals(expectedFactors[i], NTFC.primeFactors((long) -samples[i]));
+                    assertEquals(expectedMu[i], NTFC.moebiusMu(samples[i]));
+                    assertEquals(expectedMu[i] != 0, NTFC.isSquareFree((long) samples[i]));
+                }
+                assertTrue(NTFC.isPrime(2147483647L)); // Beyond the mapped tables
+            } finally {
+                NTFC.setMappedTables(null);
+            }
+            assertNull(NTFC.getMappedTables());
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    /**
+     * Test of lookups out of range, of class MappedTables.
+     * @throws IOException If the temporary directory can't be used.
+     */
+    @Test
+    public void testLookupsOutOfRange() throws IOException {
+        System.out.println("Lookups out of range");
+        Path dir = tempDirectory();
+        try {
+            MappedTables tables = MappedTables.open(dir.resolve("tables.bin"), 1000);
+            assertTrue(tables.isPrime(-997));
+            assertTrue(tables.toString().startsWith("MappedTables up to 1000 in "));
+            try {
+                int result = tables.smallestPrimeFactor(1001);
+                fail("Number beyond bound should have caused an exception, not given " + result);
+            } catch (IllegalArgumentException iae) {
+                System.out.println("\"" + iae.getMessage() + "\"");
+            }
+            try {
+                boolean result = tables.isPrime(1009);
+                fail("Number beyond bound should have caused an exception, not given " + result);
+            } catch (IllegalArgumentException iae) {
+                System.out.println("\"" + iae.getMessage() + "\"");
+            }
+            try {
+                byte result = tables.moebiusMu(-1);
+                fail("Negative number should have caused an exception, not given " + result);
+            } catch (IllegalArgumentException iae) {
+                System.out.println("\"" + iae.getMessage() + "\"");
+            }
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    /**
+     * Test of open method, of class MappedTables. A bad bound should be
+     * rejected before any file is written.
+     * @throws IOException If the temporary directory can't be used.
+     */
+    @Test
+    public void testOpenRejectsBadBound() throws IOException {
+        System.out.println("open with bad bound");
+        Path dir = tempDirectory();
+        try {
+            Path path = dir.resolve("tables.bin");
+            try {
+                MappedTables tables = MappedTables.open(path, -1);
+                fail("Negative bound should have caused an exception, not given " + tables);
+            } catch (IllegalArgumentException iae) {
+                System.out.println("\"" + iae.getMessage() + "\"");
+            }
+            try {
+                MappedTables tables = MappedTables.open(path, MappedTables.MAX_BOUND + 1);
+                fail("Bound too large should have caused an exception, not given " + tables);
+            } catch (IllegalArgumentException iae) {
+                System.out.println("\"" + iae.getMessage() + "\"");
+            }
+            assertFalse(Files.exists(path));
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package katae.calculators;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the Montgomery class. Results are checked against {@link
+ * BigInteger}.
+ * @author Alonso del Arte
+ */
+public class MontgomeryTest {
+
+    private static final long[] MODULI = {3L, 65537L, 4294967311L,
+        1000000000000000003L, 9223372036854775783L, 9223372036854775807L};
+
+    /**
+     * Test of multiply method, of class Montgomery.
+     */
+    @Test
+    public void testMultiply() {
+        System.out.println("multiply");
+        Random random = new Random(2011);
+        for (long modulus : MODULI) {
+            Montgomery mont = new Montgomery(modulus);
+            BigInteger bigModulus = BigInteger.valueOf(modulus);
+            for (int i = 0; i < 1000; i++) {
+                long a = (random.nextLong() >>> 1) % modulus;
+                long b = (random.nextLong() >>> 1) % modulus;
+                long expected = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)).mod(bigModulus).longValue();
+                long actual = mont.fromMontgomery(mont.multiply(mont.toMontgomery(a), mont.toMontgomery(b)));
+                assertEquals(a + " times " + b + " mod " + modulus, expected, actual);
+            }
+        }
+    }
+
+    /**
+     * Test of pow method, of class Montgomery.
+     */
+    @Test
+    public void testPow() {
+        System.out.println("pow");
+        Random random = new Random(1795265022);
+        for (long modulus : MODULI) {
+            Montgomery mont = new Montgomery(modulus);
+            BigInteger bigModulus = BigInteger.valueOf(modulus);
+            assertEquals(1L, mont.fromMontgomery(mont.one()));
+            assertEquals(modulus - 1, mont.fromMontgomery(mont.minusOne()));
+            for (int i = 0; i < 100; i++) {
+                long base = (random.nextLong() >>> 1) % modulus;
+                long exponent = random.nextLong() >>> 1;
+                long expected = BigInteger.valueOf(base).modPow(BigInteger.valueOf(exponent), bigModulus).longValue();
+                long actual = mont.fromMontgomery(mont.pow(mont.toMontgomery(base), exponent));
+                assertEquals(base + " to the " + exponent + " mod " + modulus, expected, actual);
+            }
+        }
+    }
+
+    /**
+     * Test of Montgomery constructor. An even modulus should cause an
+     * exception.
+     */
+    @Test
+    public void testEvenModulusCausesException() {
+        try {
+            Montgomery mont = new Montgomery(1L << 40);
+            fail("Even modulus should have caused an exception, not given modulus " + mont.getModulus());
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+}
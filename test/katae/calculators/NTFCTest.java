@@ -248,6 +248,112 @@ public class NTFCTest {
     }
 
 
+    /**
+     * Another test of isPrime method, of class NTFC, with numbers too large
+     * for trial division. Strong pseudoprimes to several bases should not fool
+     * the function, nor should squares of primes or Carmichael numbers.
+     */
+    @Test
+    public void testIsPrimeLong() {
+        System.out.println("isPrime(long) for large numbers");
+        long[] largePrimes = {4294967311L, 1000000000000000003L, 2305843009213693951L,
+            9223372036854775783L};
+        for (long largePrime : largePrimes) {
+            assertTrue(largePrime + " should be found to be prime", NTFC.isPrime(largePrime));
+            assertTrue("\u2212" + largePrime + " should be found to be prime", NTFC.isPrime(-largePrime));
+        }
+        long[] pseudoprimes = {3215031751L, 4759123141L, 1122004669633L,
+            2152302898747L, 3474749660383L, 341550071728321L,
+            3825123056546413051L, 4611686014132420609L, 9223372036854775807L,
+            Long.MIN_VALUE};
+        for (long pseudoprime : pseudoprimes) {
+            assertFalse(pseudoprime + " should not be found to be prime", NTFC.isPrime(pseudoprime));
+        }
+        for (long n = 9223372036854775001L; n < 9223372036854775807L; n += 2) {
+            assertEquals(java.math.BigInteger.valueOf(n).isProbablePrime(64), NTFC.isPrime(n));
+        }
+    }
+
+    /**
+     * Test of primeFactors method, of class NTFC.
+     */
+    @Test
+    public void testPrimeFactors() {
+        System.out.println("primeFactors");
+        List<Integer> expResult = new ArrayList<>();
+        expResult.add(2);
+        expResult.add(2);
+        expResult.add(3);
+        expResult.add(3);
+        expResult.add(5);
+        expResult.add(5);
+        expResult.add(7);
+        expResult.add(7);
+        assertEquals(expResult, NTFC.primeFactors(44100));
+        expResult.add(0, -1);
+        assertEquals(expResult, NTFC.primeFactors(-44100));
+        expResult.clear();
+        expResult.add(0);
+        assertEquals(expResult, NTFC.primeFactors(0));
+        expResult.clear();
+        expResult.add(Integer.MAX_VALUE);
+        assertEquals(expResult, NTFC.primeFactors(Integer.MAX_VALUE));
+        for (Integer prime : primesList) {
+            expResult.clear();
+            expResult.add(prime);
+            assertEquals(expResult, NTFC.primeFactors(prime));
+        }
+        int product;
+        for (int n = 2; n < 1000; n++) {
+            product = 1;
+            for (Integer factor : NTFC.primeFactors(n)) {
+                assertTrue(factor + " should be prime", NTFC.isPrime(factor));
+                product *= factor;
+            }
+            assertEquals(n, product);
+        }
+    }
+
+    /**
+     * Test of primeFactors(long) method, of class NTFC. Numbers with two
+     * large prime factors are the hardest case, and these should still be
+     * factored quickly.
+     */
+    @Test
+    public void testPrimeFactorsLong() {
+        System.out.println("primeFactors(long)");
+        Factorization factorization = NTFC.primeFactors(-44100L);
+        assertEquals(-1, factorization.signum());
+        assertArrayEquals(new long[]{2, 3, 5, 7}, factorization.getPrimes());
+        assertArrayEquals(new int[]{2, 2, 2, 2}, factorization.getExponents());
+        factorization = NTFC.primeFactors(4611686014132420609L);
+        assertArrayEquals(new long[]{2147483647L}, factorization.getPrimes());
+        assertArrayEquals(new int[]{2}, factorization.getExponents());
+        factorization = NTFC.primeFactors(998244359987710471L);
+        assertArrayEquals(new long[]{998244353L, 1000000007L}, factorization.getPrimes());
+        factorization = NTFC.primeFactors(Long.MIN_VALUE);
+        assertArrayEquals(new long[]{2}, factorization.getPrimes());
+        assertArrayEquals(new int[]{63}, factorization.getExponents());
+        factorization = NTFC.primeFactors(Long.MAX_VALUE);
+        assertArrayEquals(new long[]{7, 73, 127, 337, 92737, 649657}, factorization.getPrimes());
+        assertArrayEquals(new int[]{2, 1, 1, 1, 1, 1}, factorization.getExponents());
+        assertEquals(0, NTFC.primeFactors(0L).distinctPrimeCount());
+        assertEquals(0, NTFC.primeFactors(1L).distinctPrimeCount());
+        long num = 1000000000000L;
+        while (num < 1000000100000L) {
+            factorization = NTFC.primeFactors(num);
+            long product = 1;
+            for (int i = 0; i < factorization.distinctPrimeCount(); i++) {
+                assertTrue(NTFC.isPrime(factorization.getPrime(i)));
+                for (int j = 0; j < factorization.getExponent(i); j++) {
+                    product *= factorization.getPrime(i);
+                }
+            }
+            assertEquals(num, product);
+            num += 997;
+        }
+    }
+
     /**
      * Test of symbolLegendre method, of class 
      * NTFC. Per quadratic reciprocity, 
@@ -474,6 +580,43 @@ public class NTFCTest {
         }
     }
 
+    /**
+     * Test of symbolJacobi and symbolKronecker methods, of class NTFC, with
+     * long arguments. Jacobi(<i>n</i>, <i>pq</i>) should equal
+     * Legendre(<i>n</i>, <i>p</i>) Legendre(<i>n</i>, <i>q</i>) even when
+     * <i>pq</i> is too large for an int.
+     */
+    @Test
+    public void testSymbolsLong() {
+        System.out.println("symbolJacobi, symbolKronecker for long");
+        long p = 998244353L;
+        long q = 1000000007L;
+        for (long n = -1000000010L; n < -1000000000L; n++) {
+            byte expResult = (byte) (NTFC.symbolLegendre(n, p) * NTFC.symbolLegendre(n, q));
+            assertEquals(expResult, NTFC.symbolJacobi(n, p * q));
+            assertEquals(expResult, NTFC.symbolKronecker(n, p * q));
+            assertEquals((byte) -expResult, NTFC.symbolKronecker(n, -p * q));
+            assertEquals(NTFC.symbolJacobi(n, p * q), NTFC.symbolJacobi(n + p * q, p * q));
+        }
+        assertEquals(0, NTFC.symbolJacobi(3 * q, 3 * p));
+        assertEquals(1, NTFC.symbolJacobi(Long.MIN_VALUE, 1L));
+        assertEquals(-1, NTFC.symbolKronecker(3L, Long.MIN_VALUE));
+        assertEquals(1, NTFC.symbolKronecker(-1L, 0L));
+        assertEquals(0, NTFC.symbolKronecker(2L, 0L));
+        try {
+            byte attempt = NTFC.symbolJacobi(7L, -p * q);
+            fail("Calling Jacobi(7, " + (-p * q) + ") should have triggered an exception, not given result " + attempt + ".");
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+        try {
+            byte attempt = NTFC.symbolLegendre(7L, p * q);
+            fail("Calling Legendre(7, " + (p * q) + ") should have triggered an exception, not given result " + attempt + ".");
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
     /**
      * Test of isSquareFree method, of class NTFC. 
      * Prime numbers should be found to be squarefree, squares of primes should 
@@ -497,6 +640,140 @@ public class NTFCTest {
         }
     }
 
+    /**
+     * Test of isSquareFree(long) method, of class NTFC. Besides numbers with
+     * small square factors, this checks squares of large primes, which the
+     * bitmask and the trial division can't catch.
+     */
+    @Test
+    public void testIsSquareFreeLong() {
+        System.out.println("isSquareFree(long)");
+        assertFalse(NTFC.isSquareFree(0L));
+        assertTrue(NTFC.isSquareFree(-1L));
+        assertFalse(NTFC.isSquareFree(Long.MIN_VALUE));
+        assertFalse(NTFC.isSquareFree(Long.MAX_VALUE)); // Divisible by 49
+        assertFalse(NTFC.isSquareFree(4611686014132420609L));
+        assertFalse(NTFC.isSquareFree(-2147483647L * 2147483647L));
+        assertFalse(NTFC.isSquareFree(1000003L * 1000003L * 11));
+        assertTrue(NTFC.isSquareFree(2147483647L * 2147483629L));
+        assertTrue(NTFC.isSquareFree(998244359987710471L));
+        assertTrue(NTFC.isSquareFree(-9223372036854775783L));
+        for (long n = 1000000000000L; n < 1000000000000L + 1000; n++) {
+            Factorization factorization = NTFC.primeFactors(n);
+            boolean expected = true;
+            for (int i = 0; i < factorization.distinctPrimeCount(); i++) {
+                expected &= factorization.getExponent(i) == 1;
+            }
+            assertEquals("Squarefree " + n, expected, NTFC.isSquareFree(n));
+        }
+    }
+
+    /**
+     * Test of squareFreeBitmap method, of class NTFC. The bitmap should agree
+     * with isSquareFree, and for 1 to 10<sup>6</sup> it should have 607926
+     * bits on.
+     */
+    @Test
+    public void testSquareFreeBitmap() {
+        System.out.println("squareFreeBitmap");
+        java.util.BitSet bitmap = NTFC.squareFreeBitmap(100, 110);
+        assertEquals("{1, 2, 3, 5, 6, 7, 9}", bitmap.toString());
+        assertEquals(607926, NTFC.squareFreeBitmap(0, 1000001).cardinality());
+        assertTrue(NTFC.squareFreeBitmap(5, 5).isEmpty());
+        long from = 1000000000000000L;
+        bitmap = NTFC.squareFreeBitmap(from, from + 5001);
+        for (int i = 0; i <= 5000; i++) {
+            assertEquals("Squarefree " + (from + i), NTFC.isSquareFree(from + i), bitmap.get(i));
+        }
+        try {
+            java.util.BitSet result = NTFC.squareFreeBitmap(-10, 10);
+            fail("Negative start should have caused an exception, not given " + result);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+    /**
+     * Test of primesInRange method, of class NTFC. The small ranges are
+     * checked against the list of primes and the shared sieve, the large range
+     * against the Miller-Rabin test, in a pool of two threads, with an
+     * interval long enough to take several segments.
+     */
+    @Test
+    public void testPrimesInRange() {
+        System.out.println("primesInRange");
+        long[] expResult = {101, 103, 107, 109, 113, 127};
+        assertArrayEquals(expResult, NTFC.primesInRange(100, 130));
+        long[] result = NTFC.primesInRange(0, primesList.get(primesListLength - 1) + 1);
+        assertEquals(primesListLength, result.length);
+        for (int i = 0; i < primesListLength; i++) {
+            assertEquals((long) primesList.get(i), result[i]);
+        }
+        assertArrayEquals(new long[]{2}, NTFC.primesInRange(2, 3));
+        assertEquals(0, NTFC.primesInRange(0, 2).length);
+        assertEquals(0, NTFC.primesInRange(24, 29).length);
+        assertEquals(0, NTFC.primesInRange(5, 5).length);
+        assertEquals(78498, NTFC.primesInRange(0, 1000000).length);
+        java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(2);
+        try {
+            long from = 1000000000000L;
+            int length = 2000000;
+            result = NTFC.primesInRange(from, from + length, pool);
+            int index = 0;
+            for (long n = from; n < from + length; n++) {
+                if (NTFC.isPrime(n)) {
+                    assertEquals(n, result[index]);
+                    index++;
+                }
+            }
+            assertEquals(index, result.length);
+        } finally {
+            pool.shutdown();
+        }
+        try {
+            result = NTFC.primesInRange(10, 5);
+            fail("Backwards interval should have caused an exception, not given " + java.util.Arrays.toString(result));
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+        try {
+            result = NTFC.primesInRange(-10, 10);
+            fail("Negative start should have caused an exception, not given " + java.util.Arrays.toString(result));
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+    /**
+     * Test of primesInRange method, of class NTFC. An interval with too many
+     * primes for an array should be rejected right away, before any sieving
+     * is done, rather than after running out of memory. The upper bound used
+     * for this should never be less than the actual number of primes.
+     */
+    @Test
+    public void testPrimesInRangeTooManyPrimes() {
+        System.out.println("primesInRange with too many primes");
+        long[][] intervals = {{0, 1000000}, {2, 3}, {600, 700}, {1000000000000L, 1000000100000L}};
+        for (long[] interval : intervals) {
+            long actual = NTFC.primesInRange(interval[0], interval[1]).length;
+            long bound = RangeSieve.primeCountBound(interval[0], interval[1]);
+            assertTrue("Bound " + bound + " should be at least " + actual, bound >= actual);
+        }
+        long[] result;
+        try {
+            result = NTFC.primesInRange(0, 1L << 40);
+            fail("Interval with too many primes should have caused an exception, not given " + result.length + " primes");
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+        try {
+            result = NTFC.primesInRange(1000000000000000000L, 1000000100000000000L);
+            fail("Interval with too many primes should have caused an exception, not given " + result.length + " primes");
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
     /**
      * Test of kernel method, of class NTFC. This 
      * checks the kernel function with numbers that are the product of two 
@@ -602,6 +879,38 @@ public class NTFCTest {
         assertEquals(expResult, result);
     }
 
+    /**
+     * Test of sortedDivisors method, of class NTFC. The divisors should match
+     * those found by checking every number up to the given number, and they
+     * should come out in ascending order without repeats.
+     */
+    @Test
+    public void testSortedDivisors() {
+        System.out.println("sortedDivisors");
+        for (long n = 1; n < 2000; n++) {
+            long[] expResult = new long[(int) n];
+            int count = 0;
+            for (long d = 1; d <= n; d++) {
+                if (n % d == 0) {
+                    expResult[count++] = d;
+                }
+            }
+            expResult = java.util.Arrays.copyOf(expResult, count);
+            assertArrayEquals(expResult, NTFC.sortedDivisors(n));
+            assertArrayEquals(expResult, NTFC.sortedDivisors(-n));
+        }
+        assertEquals(0, NTFC.sortedDivisors(0L).length);
+        long[] result = NTFC.sortedDivisors(963761198400L);
+        assertEquals(6720, result.length);
+        for (int i = 1; i < result.length; i++) {
+            assertTrue(result[i - 1] < result[i]);
+            assertEquals(0, 963761198400L % result[i]);
+        }
+        result = NTFC.sortedDivisors(Long.MAX_VALUE);
+        assertEquals(96, result.length);
+        assertEquals(Long.MAX_VALUE, result[result.length - 1]);
+    }
+
     /**
      * Test of moebiusMu method, of class NTFC. I expect that
      * &mu;(&minus;<i>n</i>) = &mu;(<i>n</i>), so this test checks for that. If
@@ -684,6 +993,131 @@ public class NTFCTest {
         }
     }
 
+    /**
+     * Test of binaryGCD method, of class NTFC. The results should be the same
+     * as from euclideanGCD, for int and for long.
+     */
+    @Test
+    public void testBinaryGCD() {
+        System.out.println("binaryGCD");
+        for (int i = -30; i < 31; i++) {
+            assertEquals(1, NTFC.binaryGCD(i, i + 1));
+            assertEquals(NTFC.euclideanGCD(i, 12), NTFC.binaryGCD(i, 12));
+        }
+        for (int k = 1; k < fibonacciList.size(); k++) {
+            assertEquals(1, NTFC.binaryGCD(fibonacciList.get(k - 1), fibonacciList.get(k)));
+        }
+        assertEquals(109, NTFC.binaryGCD(0, -109));
+        assertEquals(109, NTFC.binaryGCD(109, 0));
+        assertEquals(1 << 30, NTFC.binaryGCD(Integer.MIN_VALUE, 3 << 30));
+        assertEquals(3L << 40, NTFC.binaryGCD(-(3L << 40), 9L << 41));
+        assertEquals(1L << 62, NTFC.binaryGCD(Long.MIN_VALUE, 1L << 62));
+        assertEquals(1, NTFC.binaryGCD(Long.MIN_VALUE, Long.MAX_VALUE));
+        long[] numbers = {2147483647L, 4611686014132420609L, 998244359987710471L,
+            1000000007L * 12, 9223372036854775783L, 7L * 73 * 127 * 337};
+        for (long a : numbers) {
+            for (long b : numbers) {
+                assertEquals(NTFC.euclideanGCD(a, b), NTFC.binaryGCD(a, b));
+                assertEquals(NTFC.euclideanGCD(-a, b), NTFC.binaryGCD(-a, b));
+            }
+        }
+    }
+
+    /**
+     * Test of lehmerGCD method, of class NTFC. Consecutive Fibonacci numbers
+     * too large for an int are the worst case for the Euclidean algorithm.
+     */
+    @Test
+    public void testLehmerGCD() {
+        System.out.println("lehmerGCD");
+        long fibA = 1, fibB = 1;
+        while (fibB < Long.MAX_VALUE / 2) {
+            long fibNext = fibA + fibB;
+            fibA = fibB;
+            fibB = fibNext;
+            assertEquals(1, NTFC.lehmerGCD(fibA, fibB));
+            assertEquals(fibA, NTFC.lehmerGCD(fibA * 2, fibA));
+        }
+        assertEquals(1000000007L, NTFC.lehmerGCD(998244353L * 1000000007L, -1000000007L * 999999937L));
+        assertEquals(3L << 40, NTFC.lehmerGCD(-(3L << 40), 9L << 41));
+        assertEquals(1L << 62, NTFC.lehmerGCD(Long.MIN_VALUE, 1L << 62));
+        assertEquals(Long.MAX_VALUE, NTFC.lehmerGCD(Long.MAX_VALUE, 0));
+        long[] numbers = {2147483647L, 4611686014132420609L, 998244359987710471L,
+            1000000007L * 12, 9223372036854775783L, 7L * 73 * 127 * 337};
+        for (long a : numbers) {
+            for (long b : numbers) {
+                assertEquals(NTFC.euclideanGCD(a, b), NTFC.lehmerGCD(a, b));
+                assertEquals(NTFC.euclideanGCD(a, -b), NTFC.lehmerGCD(a, -b));
+            }
+        }
+    }
+
+    /**
+     * Test of gcd and lcm methods, of class NTFC, for arrays.
+     */
+    @Test
+    public void testGCDAndLCMOfArrays() {
+        System.out.println("gcd, lcm");
+        assertEquals(6, NTFC.gcd(new long[]{84, -90, 126}));
+        assertEquals(6, NTFC.gcd(new long[]{1, 84, -90, 126}, 1, 4));
+        assertEquals(1, NTFC.gcd(new long[]{84, -90, 126, 35, 0}));
+        assertEquals(0, NTFC.gcd(new long[0]));
+        assertEquals(12, NTFC.lcm(new long[]{2, -3, 4}));
+        assertEquals(12, NTFC.lcm(new long[]{7, 2, 3, 4}, 1, 4));
+        assertEquals(0, NTFC.lcm(new long[]{2, 0, 4}));
+        assertEquals(1, NTFC.lcm(new long[0]));
+        long[] numbers = new long[42];
+        for (int n = 1; n <= numbers.length; n++) {
+            numbers[n - 1] = n;
+        }
+        assertEquals(219060189739591200L, NTFC.lcm(numbers));
+        try {
+            long result = NTFC.lcm(new long[]{2147483647L, 2147483629L, 2147483587L});
+            fail("LCM too large for long should have caused an exception, not given " + result);
+        } catch (ArithmeticException ae) {
+            System.out.println("\"" + ae.getMessage() + "\"");
+        }
+        try {
+            long result = NTFC.gcd(numbers, 2, 43);
+            fail("Range past end of array should have caused an exception, not given " + result);
+        } catch (IndexOutOfBoundsException ioobe) {
+            System.out.println("\"" + ioobe.getMessage() + "\"");
+        }
+    }
+
+    /**
+     * Test of batchGCD method, of class NTFC. The results should match taking
+     * the GCD of each number with the product of the others the slow way.
+     */
+    @Test
+    public void testBatchGCD() {
+        System.out.println("batchGCD");
+        assertArrayEquals(new long[]{3, 1, 1, 3}, NTFC.batchGCD(new long[]{15, 7, 22, 39}));
+        assertArrayEquals(new long[]{1}, NTFC.batchGCD(new long[]{91}));
+        assertArrayEquals(new long[0], NTFC.batchGCD(new long[0]));
+        long[] numbers = {998244353L * 1000000007L, 999999937L * 1000000009L,
+            -1000000007L * 999999937L, 4611686014132420609L, 2147483647L * 3,
+            1000000009L, 9223372036854775783L};
+        long[] expected = new long[numbers.length];
+        for (int i = 0; i < numbers.length; i++) {
+            java.math.BigInteger productOfOthers = java.math.BigInteger.ONE;
+            for (int j = 0; j < numbers.length; j++) {
+                if (j != i) {
+                    productOfOthers = productOfOthers.multiply(java.math.BigInteger.valueOf(numbers[j]));
+                }
+            }
+            expected[i] = productOfOthers.gcd(java.math.BigInteger.valueOf(numbers[i])).longValue();
+        }
+        assertArrayEquals(expected, NTFC.batchGCD(numbers));
+        assertEquals(1000000009L, expected[5]);
+        try {
+            long[] result = NTFC.batchGCD(new long[]{15, 0, 22});
+            fail("0 should have caused an exception, not given " + java.util.Arrays.toString(result));
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
     /**
      * Test of randomSquarefreeNumber method, of class 
      * NTFC. This test doesn't check whether the 
@@ -715,4 +1149,44 @@ public class NTFCTest {
         } while (potentialRanSqFreeNum % 10 != 9);
     }
 
+    /**
+     * Test of randomSquarefreeNumbers method, of class NTFC. Every squarefree
+     * number below a small bound should come up sooner or later, and nothing
+     * else should. For a bound too large for the table, the numbers should
+     * still be squarefree and in range.
+     */
+    @Test
+    public void testRandomSquarefreeNumbers() {
+        System.out.println("randomSquarefreeNumbers");
+        boolean[] seen = new boolean[30];
+        for (int number : NTFC.randomSquarefreeNumbers(-30, 2000)) {
+            assertTrue(number + " should be in range", number > 0 && number < 30);
+            assertTrue(number + " should be squarefree", NTFC.isSquareFree(number));
+            seen[number] = true;
+        }
+        for (int n = 1; n < 30; n++) {
+            assertEquals(n + " should come up if squarefree", NTFC.isSquareFree(n), seen[n]);
+        }
+        int[] numbers = NTFC.randomSquarefreeNumbers(Integer.MIN_VALUE, 1000);
+        assertEquals(1000, numbers.length);
+        for (int number : numbers) {
+            assertTrue(number + " should be positive", number > 0);
+            assertTrue(number + " should be squarefree", NTFC.isSquareFree(number));
+        }
+        assertEquals(1, NTFC.randomSquarefreeNumber(2));
+        assertEquals(0, NTFC.randomSquarefreeNumbers(100, 0).length);
+        try {
+            int result = NTFC.randomSquarefreeNumber(1);
+            fail("Bound 1 should have caused an exception, not given " + result);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+        try {
+            int[] result = NTFC.randomSquarefreeNumbers(100, -1);
+            fail("Negative count should have caused an exception, not given " + java.util.Arrays.toString(result));
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
 }
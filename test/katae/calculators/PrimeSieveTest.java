@@ -0,0 +1,115 @@
+package katae.calculators;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the PrimeSieve class. The sieve is checked against trial division,
+ * which is slow but obviously correct.
+ * @author Alonso del Arte
+ */
+public class PrimeSieveTest {
+
+    private static boolean isPrimeByTrialDivision(long num) {
+        long n = Math.abs(num);
+        if (n < 2) {
+            return false;
+        }
+        for (long d = 2; d * d <= n; d++) {
+            if (n % d == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Test of isPrime method, of class PrimeSieve.
+     */
+    @Test
+    public void testIsPrime() {
+        System.out.println("isPrime");
+        PrimeSieve sieve = new PrimeSieve();
+        for (int n = -sieve.getLimit(); n <= sieve.getLimit(); n++) {
+            assertEquals("Primality of " + n, isPrimeByTrialDivision(n), sieve.isPrime(n));
+        }
+    }
+
+    /**
+     * Test of isPrime method, of class PrimeSieve. Numbers beyond the limit
+     * should cause an exception rather than a wrong answer.
+     */
+    @Test
+    public void testIsPrimeBeyondLimitCausesException() {
+        PrimeSieve sieve = new PrimeSieve(100);
+        try {
+            boolean result = sieve.isPrime(101);
+            fail("Looking up 101 in sieve up to 100 should have caused an exception, not given " + result);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+    /**
+     * Test of extendTo method, of class PrimeSieve. Extending the sieve in
+     * steps that don't line up with the segments or the words should give the
+     * same results as building it all at once.
+     */
+    @Test
+    public void testExtendTo() {
+        System.out.println("extendTo");
+        PrimeSieve sieve = new PrimeSieve(10);
+        int[] limits = {11, 100, 1001, 65536, 300001, 1 << 20};
+        for (int limit : limits) {
+            sieve.extendTo(limit);
+            assertEquals(limit, sieve.getLimit());
+            for (int n = Math.max(0, limit - 1000); n <= limit; n++) {
+                assertEquals("Primality of " + n, isPrimeByTrialDivision(n), sieve.isPrime(n));
+            }
+        }
+        assertEquals(82025, sieve.primeCount());
+        sieve.extendTo(1000);
+        assertEquals("Extending to a lower limit should do nothing", 1 << 20, sieve.getLimit());
+    }
+
+    /**
+     * Test of nextPrime method, of class PrimeSieve.
+     */
+    @Test
+    public void testNextPrime() {
+        System.out.println("nextPrime");
+        PrimeSieve sieve = new PrimeSieve(1000);
+        assertEquals(2, sieve.nextPrime(-7));
+        assertEquals(3, sieve.nextPrime(2));
+        assertEquals(53, sieve.nextPrime(47));
+        assertEquals(53, sieve.nextPrime(48));
+        assertEquals(997, sieve.nextPrime(991));
+        assertEquals(-1, sieve.nextPrime(997));
+        int count = 0;
+        for (int p = sieve.nextPrime(0); p > 0; p = sieve.nextPrime(p)) {
+            assertTrue(isPrimeByTrialDivision(p));
+            count++;
+        }
+        assertEquals(168, count);
+        assertEquals(168, sieve.primeCount());
+    }
+
+    /**
+     * Test of getMemoryFootprint method, of class PrimeSieve. The footprint
+     * should be about one bit per odd number, and the estimate should match
+     * what the sieve reports once it's built.
+     */
+    @Test
+    public void testGetMemoryFootprint() {
+        System.out.println("getMemoryFootprint");
+        PrimeSieve sieve = new PrimeSieve();
+        assertEquals(PrimeSieve.estimateMemoryFootprint(PrimeSieve.DEFAULT_LIMIT), sieve.getMemoryFootprint());
+        long bitBytes = PrimeSieve.DEFAULT_LIMIT / 16;
+        assertTrue(sieve.getMemoryFootprint() >= bitBytes);
+        assertTrue(sieve.getMemoryFootprint() < bitBytes + 100);
+        long estimate = PrimeSieve.estimateMemoryFootprint(Integer.MAX_VALUE);
+        assertTrue("Full int sieve should take about 128 MB, not " + estimate, estimate > (1L << 27) && estimate < (1L << 27) + 100);
+    }
+
+}
@@ -0,0 +1,152 @@
+package katae.fractions;
+
+import java.math.BigInteger;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the BigFraction class, and for the promotion from {@link Fraction}
+ * to BigFraction and back through the {@link Rational} interface.
+ * @author Alonso del Arte
+ */
+public class BigFractionTest {
+
+    private static final BigInteger TWO_TO_THE_64TH = BigInteger.ONE.shiftLeft(64);
+
+    /**
+     * Test of BigFraction constructor. The fraction should be put in lowest
+     * terms, with the sign on the numerator.
+     */
+    @Test
+    public void testConstructorLowestTerms() {
+        System.out.println("BigFraction constructor");
+        BigFraction fraction = new BigFraction(21, -24);
+        assertEquals(BigInteger.valueOf(-7), fraction.getNumerator());
+        assertEquals(BigInteger.valueOf(8), fraction.getDenominator());
+    }
+
+    /**
+     * Test of valueOf method, of class BigFraction. The result should be a
+     * {@link Fraction} whenever it fits in <code>long</code> in lowest terms.
+     */
+    @Test
+    public void testValueOf() {
+        System.out.println("valueOf");
+        Rational big = BigFraction.valueOf(BigInteger.ONE, TWO_TO_THE_64TH);
+        assertEquals(new BigFraction(BigInteger.ONE, TWO_TO_THE_64TH), big);
+        Rational narrowed = BigFraction.valueOf(TWO_TO_THE_64TH, TWO_TO_THE_64TH.shiftLeft(1).negate());
+        assertEquals(new Fraction(-1, 2), narrowed);
+        try {
+            Rational result = BigFraction.valueOf(BigInteger.ONE, BigInteger.ZERO);
+            fail("Denominator 0 should have caused an exception, not given " + result);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+    /**
+     * Test of plus method, of class BigFraction. A sum that fits in
+     * <code>long</code> should be given as a {@link Fraction}.
+     */
+    @Test
+    public void testPlusNarrowsToFraction() {
+        System.out.println("plus");
+        BigFraction addendA = new BigFraction(BigInteger.ONE, TWO_TO_THE_64TH);
+        BigFraction addendB = new BigFraction(TWO_TO_THE_64TH.subtract(BigInteger.ONE), TWO_TO_THE_64TH);
+        Rational expected = new Fraction(1);
+        Rational actual = addendA.plus(addendB);
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Test of minus method, of class BigFraction.
+     */
+    @Test
+    public void testMinus() {
+        System.out.println("minus");
+        BigFraction minuend = new BigFraction(BigInteger.valueOf(3), TWO_TO_THE_64TH);
+        Fraction subtrahend = new Fraction(1, 2);
+        BigFraction expected = new BigFraction(BigInteger.valueOf(3).subtract(TWO_TO_THE_64TH.shiftRight(1)), TWO_TO_THE_64TH);
+        Rational actual = minuend.minus(subtrahend);
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Test of times and divides methods, of class BigFraction.
+     */
+    @Test
+    public void testTimesAndDivides() {
+        System.out.println("times, divides");
+        BigFraction multiplicand = new BigFraction(BigInteger.valueOf(7), TWO_TO_THE_64TH);
+        Fraction multiplier = new Fraction(1L << 62, 3);
+        Rational expected = new Fraction(7, 12);
+        Rational actual = multiplicand.times(multiplier);
+        assertEquals(expected, actual);
+        actual = actual.divides(multiplier);
+        assertEquals(multiplicand, actual);
+    }
+
+    /**
+     * Test of reciprocal method, of class BigFraction. The sign should stay on
+     * the numerator, and trying to take the reciprocal of 0 should cause an
+     * exception.
+     */
+    @Test
+    public void testReciprocal() {
+        System.out.println("reciprocal");
+        BigFraction fraction = new BigFraction(BigInteger.valueOf(-3), TWO_TO_THE_64TH);
+        BigFraction expected = new BigFraction(TWO_TO_THE_64TH.negate(), BigInteger.valueOf(3));
+        assertEquals(expected, fraction.reciprocal());
+        try {
+            Rational result = new BigFraction(BigInteger.ZERO).reciprocal();
+            fail("Reciprocal of 0 should have caused an exception, not given result " + result.toString());
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+    /**
+     * Test of compareTo method, of class BigFraction. Should work across the
+     * two representations.
+     */
+    @Test
+    public void testCompareTo() {
+        System.out.println("compareTo");
+        BigFraction tiny = new BigFraction(BigInteger.ONE, TWO_TO_THE_64TH);
+        Fraction smallest = new Fraction(1, Long.MAX_VALUE);
+        assertTrue(tiny.compareTo(smallest) < 0);
+        assertTrue(smallest.compareTo(tiny) > 0);
+        assertEquals(0, new BigFraction(3, 4).compareTo(new Fraction(9, 12)));
+    }
+
+    /**
+     * Test of plus(Rational) method, of class Fraction. A sum of two fractions
+     * whose lowest terms overflow <code>long</code> should be promoted to
+     * BigFraction rather than cause an exception.
+     */
+    @Test
+    public void testFractionPromotesOnOverflow() {
+        System.out.println("Fraction promotes to BigFraction on overflow");
+        Rational addendA = new Fraction(1, 4294967311L);
+        Rational addendB = new Fraction(1, 4294967357L);
+        Rational actual = addendA.plus(addendB);
+        BigInteger denomA = BigInteger.valueOf(4294967311L);
+        BigInteger denomB = BigInteger.valueOf(4294967357L);
+        BigFraction expected = new BigFraction(denomA.add(denomB), denomA.multiply(denomB));
+        assertEquals(expected, actual);
+        Rational halves = new Fraction(1, 2).plus(new Fraction(1, 2));
+        assertEquals(new Fraction(1), halves);
+    }
+
+    /**
+     * Test of getNumericApproximation method, of class BigFraction.
+     */
+    @Test
+    public void testGetNumericApproximation() {
+        System.out.println("getNumericApproximation");
+        BigFraction fraction = new BigFraction(TWO_TO_THE_64TH.multiply(BigInteger.valueOf(3)), TWO_TO_THE_64TH.shiftLeft(2));
+        assertEquals(0.75, fraction.getNumericApproximation(), 0.00000001);
+    }
+
+}
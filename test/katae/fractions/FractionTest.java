@@ -9,7 +9,6 @@ import java.util.HashSet;
 import java.util.List;
 
 import org.junit.Before;
-import org.junit.Ignore;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -126,6 +125,99 @@ public class FractionTest {
         assertEquals(expected, actual);
     }
 
+    /**
+     * Another test of plus method, of class Fraction. The denominators here are
+     * large enough that multiplying them together would overflow
+     * <code>long</code>, but the sum itself fits.
+     */
+    @Test
+    public void testPlusLargeDenominators() {
+        Fraction addendA = new Fraction(1, 6000000000L);
+        Fraction addendB = new Fraction(1, 4000000000L);
+        Fraction expected = new Fraction(1, 2400000000L);
+        Fraction actual = addendA.plus(addendB);
+        assertEquals(expected, actual);
+        addendA = new Fraction(Long.MAX_VALUE - 1, Long.MAX_VALUE);
+        addendB = new Fraction(1, Long.MAX_VALUE);
+        expected = new Fraction(1);
+        actual = addendA.plus(addendB);
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Another test of minus method, of class Fraction. The cross products here
+     * would overflow <code>long</code>, but the difference fits.
+     */
+    @Test
+    public void testMinusLargeDenominators() {
+        Fraction minuend = new Fraction(3000000001L, 3000000002L);
+        Fraction subtrahend = new Fraction(3000000000L, 3000000001L);
+        Fraction expected = new Fraction(1, 9000000009000000002L);
+        Fraction actual = minuend.minus(subtrahend);
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Test of plus and times methods, of class Fraction. If the result in
+     * lowest terms does not fit in <code>long</code>, that should cause
+     * FractionOverflowException rather than a silently wrong result.
+     */
+    @Test
+    public void testOverflowCausesException() {
+        System.out.println("Overflow should cause FractionOverflowException");
+        Fraction operand = new Fraction(1, 4294967311L);
+        Fraction otherOperand = new Fraction(1, 4294967357L);
+        try {
+            Fraction result = operand.plus(otherOperand);
+            String failMessage = operand.toString() + " plus "
+                    + otherOperand.toString()
+                    + " should have caused an exception, not given result "
+                    + result.toString();
+            fail(failMessage);
+        } catch (FractionOverflowException foe) {
+            System.out.println("\"" + foe.getMessage() + "\"");
+        }
+        try {
+            Fraction result = operand.times(otherOperand);
+            String failMessage = operand.toString() + " times "
+                    + otherOperand.toString()
+                    + " should have caused an exception, not given result "
+                    + result.toString();
+            fail(failMessage);
+        } catch (FractionOverflowException foe) {
+            System.out.println("\"" + foe.getMessage() + "\"");
+        }
+    }
+
+    /**
+     * Test of divides method, of class Fraction. Dividing by a fraction with
+     * numerator <code>Long.MIN_VALUE</code> should only cause an exception if
+     * the quotient in lowest terms truly doesn't fit.
+     */
+    @Test
+    public void testDividesByMinValueNumerator() {
+        System.out.println("divides by fraction with Long.MIN_VALUE numerator");
+        Fraction divisor = new Fraction(Long.MIN_VALUE);
+        Fraction expected = new Fraction(-1, 1L << 62);
+        Fraction actual = new Fraction(2).divides(divisor);
+        assertEquals(expected, actual);
+        expected = new Fraction(-7, 3L << 60);
+        actual = new Fraction(8, 3).divides(new Fraction(Long.MIN_VALUE, 7));
+        assertEquals(expected, actual);
+        assertEquals(new Fraction(1), divisor.divides(divisor));
+        Fraction operand = new Fraction(1);
+        try {
+            Fraction result = operand.divides(divisor);
+            String failMessage = operand.toString() + " divided by "
+                    + divisor.toString()
+                    + " should have caused an exception, not given result "
+                    + result.toString();
+            fail(failMessage);
+        } catch (FractionOverflowException foe) {
+            System.out.println("\"" + foe.getMessage() + "\"");
+        }
+    }
+
     /**
      * Test of times method, of class Fraction.
      */
@@ -366,6 +458,46 @@ public class FractionTest {
         System.out.println("Successfully created " + prevSize + " instances of Fraction with " + prevSize + " distinct hash codes.");
     }
 
+    /**
+     * Test of hashCode method, of class Fraction. This checks the
+     * distribution of hash codes for all the fractions in the unit interval
+     * with denominators up to 600, more than 100,000 of them. There should be
+     * hardly any outright collisions, and when the hash codes are spread over
+     * 65536 buckets the way {@link java.util.HashMap} does it, no bucket
+     * should be much fuller than the average of about 1.7.
+     */
+    @Test
+    public void testHashCodeDistribution() {
+        System.out.println("hashCode distribution");
+        final int bucketCount = 65536;
+        int[] bucketLoads = new int[bucketCount];
+        HashSet<Integer> hashes = new HashSet<>();
+        int fractionCount = 0;
+        int hash, bucket;
+        for (long d = 1; d <= 600; d++) {
+            for (long n = 0; n <= d; n++) {
+                if (NTFC.euclideanGCD(n, d) == 1) {
+                    hash = new Fraction(n, d).hashCode();
+                    hashes.add(hash);
+                    bucket = (hash ^ (hash >>> 16)) & (bucketCount - 1);
+                    bucketLoads[bucket]++;
+                    fractionCount++;
+                }
+            }
+        }
+        int collisions = fractionCount - hashes.size();
+        System.out.println(fractionCount + " fractions gave " + collisions + " hash code collisions");
+        String assertionMessage = "Expected almost no collisions among " + fractionCount + " hash codes, got " + collisions;
+        assertTrue(assertionMessage, collisions < 10);
+        int maxLoad = 0;
+        for (int load : bucketLoads) {
+            maxLoad = Math.max(maxLoad, load);
+        }
+        System.out.println("Fullest bucket has " + maxLoad + " fractions");
+        assertionMessage = "Fullest bucket should not have " + maxLoad + " fractions";
+        assertTrue(assertionMessage, maxLoad < 16);
+    }
+
     /**
      * Test of equals method, of class Fraction.
      */
@@ -457,7 +589,6 @@ public class FractionTest {
      * whether Fraction can distinguish between 1/9223372036854775807 and
      * 1/9223372036854775806.
      */
-    @Ignore
     @Test
     public void testCompareToCloseFraction() {
         Fraction numberA = new Fraction(1, Integer.MAX_VALUE);
@@ -468,6 +599,62 @@ public class FractionTest {
         assertTrue(assertionMessage, numberB.compareTo(numberA) > 0);
     }
 
+    /**
+     * Another test of compareTo method, of class Fraction. Fractions whose
+     * numerators and denominators are both close to {@link Long#MAX_VALUE}
+     * should still be compared correctly.
+     */
+    @Test
+    public void testCompareToHugeFractions() {
+        Fraction numberA = new Fraction(Long.MAX_VALUE - 2, Long.MAX_VALUE - 1);
+        Fraction numberB = new Fraction(Long.MAX_VALUE - 1, Long.MAX_VALUE);
+        String assertionMessage = numberA.toString() + " should be found to be less than " + numberB.toString();
+        assertTrue(assertionMessage, numberA.compareTo(numberB) < 0);
+        assertionMessage = numberB.toString() + " should be found to be greater than " + numberA.toString();
+        assertTrue(assertionMessage, numberB.compareTo(numberA) > 0);
+        numberA = numberA.negate();
+        numberB = numberB.negate();
+        assertionMessage = numberA.toString() + " should be found to be greater than " + numberB.toString();
+        assertTrue(assertionMessage, numberA.compareTo(numberB) > 0);
+    }
+
+    /**
+     * Test of compareToZero method, of class Fraction.
+     */
+    @Test
+    public void testCompareToZero() {
+        System.out.println("compareToZero");
+        assertEquals(1, operandA.compareToZero());
+        assertEquals(0, new Fraction(0, 5).compareToZero());
+        assertEquals(-1, operandA.negate().compareToZero());
+    }
+
+    /**
+     * Test of compareToOne method, of class Fraction.
+     */
+    @Test
+    public void testCompareToOne() {
+        System.out.println("compareToOne");
+        assertTrue(operandA.compareToOne() < 0);
+        assertEquals(0, new Fraction(5, 5).compareToOne());
+        assertTrue(operandA.reciprocal().compareToOne() > 0);
+        assertTrue(new Fraction(-9, 8).compareToOne() < 0);
+    }
+
+    /**
+     * Test of isInUnitInterval method, of class Fraction. The unit interval is
+     * taken to be closed, so 0 and 1 are in it.
+     */
+    @Test
+    public void testIsInUnitInterval() {
+        System.out.println("isInUnitInterval");
+        assertTrue(operandA.isInUnitInterval());
+        assertTrue(new Fraction(0).isInUnitInterval());
+        assertTrue(new Fraction(1).isInUnitInterval());
+        assertFalse(operandA.negate().isInUnitInterval());
+        assertFalse(operandA.reciprocal().isInUnitInterval());
+    }
+
     /**
      * Yet another test of compareTo method, of class Fraction. This one checks
      * that {@link Collections#sort(java.util.List)} can use compareTo to sort a
@@ -584,4 +771,146 @@ public class FractionTest {
         assertEquals(29L, fraction.getDenominator());
     }
 
+    /**
+     * Test of Fraction constructor. Fractions constructed from different but
+     * arithmetically equal numerators and denominators should be equal and
+     * hash the same.
+     */
+    @Test
+    public void testEquivalentFractionsEqualAndHashSame() {
+        Fraction threeQuarters = new Fraction(3, 4);
+        Fraction nineTwelfths = new Fraction(-9, -12);
+        assertEquals(threeQuarters, nineTwelfths);
+        assertEquals(threeQuarters.hashCode(), nineTwelfths.hashCode());
+    }
+
+    /**
+     * Test of Fraction constructor. A denominator of 0 should cause
+     * IllegalArgumentException.
+     */
+    @Test
+    public void testZeroDenominatorCausesException() {
+        try {
+            Fraction fraction = new Fraction(1, 0);
+            fail("Denominator 0 should have caused an exception, not given " + fraction.toString());
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+    /**
+     * Test of valueOf method, of class Fraction. Small fractions should come
+     * from the cache, in lowest terms, regardless of the numerator and
+     * denominator used to ask for them.
+     */
+    @Test
+    public void testValueOf() {
+        System.out.println("valueOf");
+        Fraction expected = new Fraction(-3, 4);
+        Fraction actual = Fraction.valueOf(9, -12);
+        assertEquals(expected, actual);
+        assertSame(actual, Fraction.valueOf(-3, 4));
+        assertSame(Fraction.valueOf(1, 1024), Fraction.valueOf(2, 2048));
+        assertSame(Fraction.valueOf(12), Fraction.valueOf(24, 2));
+        assertSame(Fraction.valueOf(1, 3), operandB.times(operandA).divides(operandA));
+        expected = new Fraction(1, 4294967296L);
+        actual = Fraction.valueOf(2, 8589934592L);
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Test of parse method, of class Fraction. Integers, fractions, mixed
+     * numbers and decimals should all be understood, with or without a sign
+     * and surrounding spaces.
+     */
+    @Test
+    public void testParse() {
+        System.out.println("parse");
+        assertEquals(new Fraction(12), Fraction.parse("12"));
+        assertEquals(new Fraction(3, 4), Fraction.parse("9/12"));
+        assertEquals(new Fraction(-7, 4), Fraction.parse(" -1 3/4 "));
+        assertEquals(new Fraction(7, 4), Fraction.parse("+1  3/4"));
+        assertEquals(new Fraction(3, 8), Fraction.parse("0.375"));
+        assertEquals(new Fraction(-1, 2), Fraction.parse("-.50000000000000000000000"));
+        assertEquals(new Fraction(5), Fraction.parse("5."));
+        assertEquals(new Fraction(Long.MAX_VALUE, 2), Fraction.parse("9223372036854775807/2"));
+        String line = "1/2 + 1/3 + 1/24 = 7/8";
+        assertEquals(new Fraction(1, 3), Fraction.parse(line, 6, 9));
+        assertEquals(new Fraction(1, 24), Fraction.parse(line, 11, 16));
+        assertEquals(new Fraction(7, 8), Fraction.parse(line, 18, line.length()));
+    }
+
+    /**
+     * Test of parse method, of class Fraction. Malformed text and numbers out
+     * of range should cause NumberFormatException.
+     */
+    @Test
+    public void testParseRejectsMalformedText() {
+        String[] badTexts = {"", "  ", "-", "/2", "1/", "1/2/3", "1 /2", "1 3",
+            "1.2/3", "1.2.3", "0x1F", "3/4 1", "9223372036854775808",
+            "1 9223372036854775807/2", "92233720368547758.08"};
+        for (String badText : badTexts) {
+            try {
+                Fraction fraction = Fraction.parse(badText);
+                fail("Parsing \"" + badText + "\" should have caused an exception, not given " + fraction.toString());
+            } catch (NumberFormatException nfe) {
+                System.out.println("\"" + nfe.getMessage() + "\"");
+            }
+        }
+    }
+
+    /**
+     * Test of parse method, of class Fraction. A denominator of 0 should cause
+     * the same exception as it does for the constructor.
+     */
+    @Test
+    public void testParseZeroDenominatorCausesException() {
+        try {
+            Fraction fraction = Fraction.parse("3/0");
+            fail("Denominator 0 should have caused an exception, not given " + fraction.toString());
+        } catch (NumberFormatException nfe) {
+            fail("Denominator 0 is well-formed, should not have caused NumberFormatException");
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+    /**
+     * Test of appendTo, appendHTMLTo and appendTeXTo methods, of class
+     * Fraction. Each should write into the given buffer, after whatever is
+     * already there, and give back the same buffer.
+     */
+    @Test
+    public void testAppendTo() {
+        System.out.println("appendTo");
+        StringBuilder builder = new StringBuilder("Sum: ");
+        assertSame(builder, new Fraction(1, 2).appendTo(builder));
+        new Fraction(1, 3).appendTo(builder.append(" + "));
+        new Fraction(-5).appendTo(builder.append(" + "));
+        assertEquals("Sum: 1/2 + 1/3 + -5", builder.toString());
+        builder.setLength(0);
+        new Fraction(-7, 12).appendHTMLTo(builder);
+        assertEquals("&minus;<sup>7</sup>&frasl;<sub>12</sub>", builder.toString());
+        builder.setLength(0);
+        new Fraction(-8, 5).appendTeXTo(builder);
+        assertEquals("-\\frac{8}{5}", builder.toString());
+        Fraction extreme = new Fraction(Long.MIN_VALUE, 3);
+        assertEquals("&minus;<sup>9223372036854775808</sup>&frasl;<sub>3</sub>", extreme.toHTMLString());
+        assertEquals("-\\frac{9223372036854775808}{3}", extreme.toTeXString());
+    }
+
+    /**
+     * Test of parse method, of class Fraction. Whatever toString gives should
+     * parse back to an equal fraction.
+     */
+    @Test
+    public void testParseRoundTrip() {
+        System.out.println("parse of toString");
+        Fraction[] fractions = {operandA, operandB, new Fraction(-29, 12),
+            new Fraction(0), new Fraction(Long.MAX_VALUE, Long.MAX_VALUE - 1)};
+        for (Fraction fraction : fractions) {
+            assertEquals(fraction, Fraction.parse(fraction.toString()));
+        }
+    }
+
 }
@@ -0,0 +1,169 @@
+package katae.fractions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of the FractionVector class.
+ * @author Alonso del Arte
+ */
+public class FractionVectorTest {
+
+    private static List<Fraction> makeList(long... numersAndDenoms) {
+        List<Fraction> list = new ArrayList<>();
+        for (int i = 0; i < numersAndDenoms.length; i += 2) {
+            list.add(new Fraction(numersAndDenoms[i], numersAndDenoms[i + 1]));
+        }
+        return list;
+    }
+
+    /**
+     * Test of toList method, of class FractionVector. Converting a list to a
+     * vector and back should give an equal list.
+     */
+    @Test
+    public void testToList() {
+        System.out.println("toList");
+        List<Fraction> expected = makeList(1, 2, 1, 3, 1, 24);
+        FractionVector vector = new FractionVector(expected);
+        assertEquals(3, vector.size());
+        assertEquals(expected, vector.toList());
+    }
+
+    /**
+     * Test of of method, of class FractionVector. It should give the same
+     * vector as the constructor that takes a list.
+     */
+    @Test
+    public void testOf() {
+        System.out.println("of");
+        FractionVector vector = FractionVector.of(new Fraction(1, 2), new Fraction(1, 3), new Fraction(1, 24));
+        assertEquals(makeList(1, 2, 1, 3, 1, 24), vector.toList());
+        assertEquals(0, FractionVector.of().size());
+    }
+
+    /**
+     * Test of add and get methods, of class FractionVector. The vector should
+     * grow as needed.
+     */
+    @Test
+    public void testAddAndGet() {
+        System.out.println("add, get");
+        FractionVector vector = new FractionVector(1);
+        for (int n = 1; n < 100; n++) {
+            vector.add(Fraction.valueOf(1, n));
+        }
+        assertEquals(99, vector.size());
+        assertEquals(new Fraction(1, 57), vector.get(56));
+        try {
+            Fraction result = vector.get(99);
+            fail("Index 99 should have caused an exception, not given " + result.toString());
+        } catch (IndexOutOfBoundsException ioobe) {
+            System.out.println("\"" + ioobe.getMessage() + "\"");
+        }
+    }
+
+    /**
+     * Test of sum method, of class FractionVector.
+     */
+    @Test
+    public void testSum() {
+        System.out.println("sum");
+        FractionVector vector = new FractionVector(makeList(1, 2, 1, 3, 1, 24));
+        assertEquals(new Fraction(7, 8), vector.sum());
+        assertEquals(new Fraction(0), new FractionVector(0).sum());
+    }
+
+    /**
+     * Another test of sum method, of class FractionVector, with fractions
+     * whose least common denominator is too large for a long, so the running
+     * sum has to take over.
+     */
+    @Test
+    public void testSumWithoutCommonDenominator() {
+        System.out.println("sum with overflowing common denominator");
+        FractionVector vector = new FractionVector(makeList(1, 2147483647L,
+                -1, 2147483647L, 1, 2147483629L, 1, 2147483587L));
+        assertEquals(new Fraction(2147483629L + 2147483587L,
+                2147483629L * 2147483587L), vector.sum());
+        vector = new FractionVector(makeList(1, 2, 1, 4, 1, 586, 1, 400043,
+                1, 480102805504L));
+        assertEquals(480102805504L, vector.commonDenominator());
+        assertEquals(new Fraction(3079, 4096), vector.sum());
+    }
+
+    /**
+     * Test of commonDenominator method, of class FractionVector.
+     */
+    @Test
+    public void testCommonDenominator() {
+        System.out.println("commonDenominator");
+        assertEquals(24L, new FractionVector(makeList(1, 2, 1, 3, 1, 24)).commonDenominator());
+        assertEquals(1L, new FractionVector(4).commonDenominator());
+        FractionVector vector = new FractionVector(makeList(1, 2147483647L,
+                1, 2147483629L, 1, 2147483587L));
+        try {
+            long result = vector.commonDenominator();
+            fail("Overflowing common denominator should have caused an exception, not given " + result);
+        } catch (FractionOverflowException foe) {
+            System.out.println("\"" + foe.getMessage() + "\"");
+        }
+    }
+
+    /**
+     * Test of sortInPlace method, of class FractionVector. Should agree with
+     * {@link Collections#sort(java.util.List)}.
+     */
+    @Test
+    public void testSortInPlace() {
+        System.out.println("sortInPlace");
+        List<Fraction> list = makeList(355, 113, -3, 2, 22, 7, 7, 8, 157, 50,
+                1, 3, 1, 9223372036854775807L, 1, 9223372036854775806L);
+        FractionVector vector = new FractionVector(list);
+        Collections.sort(list);
+        vector.sortInPlace();
+        assertEquals(list, vector.toList());
+    }
+
+    /**
+     * Test of plus and reduceAll methods, of class FractionVector.
+     */
+    @Test
+    public void testPlusAndReduceAll() {
+        System.out.println("plus, reduceAll");
+        FractionVector vectorA = new FractionVector(makeList(1, 2, 1, 3));
+        FractionVector vectorB = new FractionVector(makeList(1, 4, 1, 6));
+        FractionVector sums = vectorA.plus(vectorB);
+        assertEquals(makeList(3, 4, 1, 2), sums.toList());
+        sums.reduceAll();
+        assertEquals(3L, sums.getNumerator(0));
+        assertEquals(4L, sums.getDenominator(0));
+        assertEquals(1L, sums.getNumerator(1));
+        assertEquals(2L, sums.getDenominator(1));
+        sums = vectorA.plus(new Fraction(1, 2));
+        assertEquals(makeList(1, 1, 5, 6), sums.toList());
+    }
+
+    /**
+     * Test of times method, of class FractionVector.
+     */
+    @Test
+    public void testTimes() {
+        System.out.println("times");
+        FractionVector vectorA = new FractionVector(makeList(1, 2, -1, 3));
+        FractionVector vectorB = new FractionVector(makeList(2, 5, 3, 7));
+        assertEquals(makeList(1, 5, -1, 7), vectorA.times(vectorB).toList());
+        assertEquals(makeList(3, 4, -1, 2), vectorA.times(new Fraction(3, 2)).toList());
+        try {
+            FractionVector result = vectorA.times(new FractionVector(0));
+            fail("Mismatched sizes should have caused an exception, not given " + result.toString());
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package katae.fractions;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of the MutableFraction class.
+ * @author Alonso del Arte
+ */
+public class MutableFractionTest {
+
+    /**
+     * Test of addInPlace method, of class MutableFraction. Summing the
+     * telescoping series 1/(1 &times; 2) + 1/(2 &times; 3) + ... should give
+     * <i>n</i>/(<i>n</i> + 1).
+     */
+    @Test
+    public void testAddInPlace() {
+        System.out.println("addInPlace");
+        MutableFraction accumulator = new MutableFraction();
+        for (int k = 1; k < 500; k++) {
+            accumulator.addInPlace(Fraction.valueOf(1, k * (k + 1)));
+        }
+        Fraction expected = new Fraction(499, 500);
+        assertEquals(expected, accumulator.toFraction());
+    }
+
+    /**
+     * Another test of addInPlace method, of class MutableFraction. The
+     * unreduced running sum of these unit fractions overflows
+     * <code>long</code> long before the reduced sum does.
+     */
+    @Test
+    public void testAddInPlaceReducesWhenNeeded() {
+        MutableFraction accumulator = new MutableFraction();
+        Fraction sixtyFourth = new Fraction(1, 64);
+        for (int i = 0; i < 64; i++) {
+            accumulator.addInPlace(new Fraction(1, 1L << 40));
+            accumulator.addInPlace(sixtyFourth);
+        }
+        Fraction expected = new Fraction((1L << 34) + 1, 1L << 34);
+        assertEquals(expected, accumulator.toFraction());
+    }
+
+    /**
+     * Test of subtractInPlace method, of class MutableFraction.
+     */
+    @Test
+    public void testSubtractInPlace() {
+        System.out.println("subtractInPlace");
+        MutableFraction accumulator = new MutableFraction(new Fraction(7, 8));
+        accumulator.subtractInPlace(new Fraction(1, 2)).subtractInPlace(1);
+        Fraction expected = new Fraction(-5, 8);
+        assertEquals(expected, accumulator.toFraction());
+        assertEquals(-1, accumulator.signum());
+    }
+
+    /**
+     * Test of multiplyInPlace method, of class MutableFraction.
+     */
+    @Test
+    public void testMultiplyInPlace() {
+        System.out.println("multiplyInPlace");
+        MutableFraction accumulator = new MutableFraction(new Fraction(7, 8));
+        accumulator.multiplyInPlace(new Fraction(1, 3)).multiplyInPlace(-12);
+        Fraction expected = new Fraction(-7, 2);
+        assertEquals(expected, accumulator.toFraction());
+    }
+
+    /**
+     * Test of reduce method, of class MutableFraction.
+     */
+    @Test
+    public void testReduce() {
+        System.out.println("reduce");
+        MutableFraction accumulator = new MutableFraction(new Fraction(1, 2));
+        accumulator.addInPlace(new Fraction(1, 4)).reduce();
+        assertEquals(3L, accumulator.getNumerator());
+        assertEquals(4L, accumulator.getDenominator());
+    }
+
+    /**
+     * Test of compareTo method, of class MutableFraction.
+     */
+    @Test
+    public void testCompareTo() {
+        System.out.println("compareTo");
+        MutableFraction accumulator = new MutableFraction(new Fraction(1, 2));
+        accumulator.addInPlace(new Fraction(1, 4));
+        assertEquals(0, accumulator.compareTo(new Fraction(3, 4)));
+        assertTrue(accumulator.compareTo(new Fraction(7, 8)) < 0);
+        assertTrue(accumulator.compareTo(new Fraction(-7, 8)) > 0);
+    }
+
+    /**
+     * Test of toFraction method, of class MutableFraction. Changing the
+     * accumulator afterwards should not change the snapshot.
+     */
+    @Test
+    public void testToFractionIsSnapshot() {
+        System.out.println("toFraction");
+        MutableFraction accumulator = new MutableFraction(new Fraction(1, 3));
+        Fraction snapshot = accumulator.toFraction();
+        accumulator.addInPlace(1);
+        assertEquals(new Fraction(1, 3), snapshot);
+        assertEquals(new Fraction(4, 3), accumulator.toFraction());
+    }
+
+    /**
+     * Test of subtractInPlace method, of class MutableFraction. Subtracting
+     * 1/2, 1/4, 1/8, ..., 1/2<sup>62</sup> from 1 overflows the unreduced
+     * denominator long before the end, so the accumulator has to reduce in
+     * place to keep going.
+     */
+    @Test
+    public void testSubtractInPlaceReducesWhenNeeded() {
+        System.out.println("subtractInPlace reduces when needed");
+        MutableFraction accumulator = new MutableFraction(new Fraction(1));
+        for (int k = 1; k < 63; k++) {
+            accumulator.subtractInPlace(new Fraction(1, 1L << k));
+        }
+        assertEquals(new Fraction(1, 1L << 62), accumulator.toFraction());
+    }
+
+}